@@ -0,0 +1,26 @@
+package projects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+/*
+ * Entry point of benchmarks.jar. Runs JMH with the given arguments and adds the gc profiler,
+ * so every result also shows allocation per operation, unless another profiler was asked for.
+ *
+ *   java -jar target/benchmarks.jar MappingBenchmark -p rows=100
+ */
+public class BenchmarksMain {
+	public static void main(String[] args) throws Exception {
+		List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+
+		if (!jmhArgs.contains("-prof") && !jmhArgs.contains("-h") && !jmhArgs.contains("-l")) {
+			jmhArgs.add("-prof");
+			jmhArgs.add("gc");
+		}
+
+		Main.main(jmhArgs.toArray(new String[0]));
+	}
+}
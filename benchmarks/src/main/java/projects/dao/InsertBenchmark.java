@@ -0,0 +1,92 @@
+package projects.dao;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import projects.entity.Project;
+
+/*
+ * Compares inserting projects one row per call with insertProjects() batches.
+ * Scores are rows per second.
+ *
+ * Unlike the mapping benchmarks this one needs the local MySQL projects schema
+ * that DbConnection points at. The rows it inserts are deleted after each iteration.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class InsertBenchmark {
+	static final int ROWS = 1000;
+
+	private static final String NAME_PREFIX = "insert-benchmark-";
+
+	private final ProjectDao projectDao = new ProjectDao();
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void singleRowInserts() {
+		for(Project project : newProjects()) {
+			projectDao.insertProject(project);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void batchInsert() {
+		projectDao.insertProjects(newProjects());
+	}
+
+	@TearDown(Level.Iteration)
+	public void deleteInsertedRows() throws SQLException {
+		try(Connection conn = DbConnection.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(
+						"DELETE FROM project WHERE project_name LIKE ?")) {
+			stmt.setString(1, NAME_PREFIX + "%");
+			stmt.executeUpdate();
+		}
+	}
+
+	// Removes anything left behind by an earlier, interrupted run.
+	@Setup(Level.Trial)
+	public void clean() throws SQLException {
+		deleteInsertedRows();
+	}
+
+	private List<Project> newProjects() {
+		List<Project> projects = new ArrayList<>(ROWS);
+
+		for(int i = 0; i < ROWS; i++) {
+			Project project = new Project();
+			project.setProjectName(NAME_PREFIX + i);
+			project.setEstimatedHours(new BigDecimal("4.00"));
+			project.setActualHours(new BigDecimal("3.50"));
+			project.setDifficulty(i % 5 + 1);
+			project.setNotes("Inserted by InsertBenchmark");
+			projects.add(project);
+		}
+
+		return projects;
+	}
+}
@@ -0,0 +1,97 @@
+package projects.entity;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Renders a project with many steps: the old string concatenation, the single-builder
+ * toString(), and the truncated rendering used by the menu.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ProjectToStringBenchmark {
+	@Param({ "100", "1000", "5000" })
+	public int steps;
+
+	private Project project;
+
+	@Setup
+	public void setUp() {
+		project = new Project();
+		project.setProjectId(1);
+		project.setProjectName("Birdhouse");
+		project.setNotes("Use cedar.");
+
+		for(int i = 1; i <= steps; i++) {
+			Step step = new Step();
+			step.setStepId(i);
+			step.setStepText("Do step " + i + " carefully");
+			step.setStepOrder(i);
+			project.getSteps().add(step);
+		}
+	}
+
+	@Benchmark
+	public String concatenation() {
+		return legacyToString(project);
+	}
+
+	@Benchmark
+	public String builder() {
+		return project.toString();
+	}
+
+	@Benchmark
+	public String truncated() {
+		return project.toString(10);
+	}
+
+	/*
+	 * Project.toString() as it was before it used a StringBuilder.
+	 */
+	private static String legacyToString(Project project) {
+		String result = "";
+
+		result += "\n   ID=" + project.getProjectId();
+		result += "\n   name=" + project.getProjectName();
+		result += "\n   estimatedHours=" + project.getEstimatedHours();
+		result += "\n   actualHours=" + project.getActualHours();
+		result += "\n   difficulty=" + project.getDifficulty();
+		result += "\n   notes=" + project.getNotes();
+
+		result += "\n   Materials:";
+
+		for(Material material : project.getMaterials()) {
+			result += "\n      " + material;
+		}
+
+		result += "\n   Steps:";
+
+		for(Step step : project.getSteps()) {
+			result += "\n      " + step;
+		}
+
+		result += "\n   Categories:";
+
+		for(Category category : project.getCategories()) {
+			result += "\n      " + category;
+		}
+
+		return result;
+	}
+}
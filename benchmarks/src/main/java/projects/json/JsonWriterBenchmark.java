@@ -0,0 +1,94 @@
+package projects.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/*
+ * Compares ProjectJsonWriter with Jackson's ObjectMapper writing the same project to a
+ * discarding stream. Run with -prof gc to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonWriterBenchmark {
+	// Number of materials and of steps in the project. Project keeps them in LinkedLists, so
+	// the largest size shows up any indexed access as quadratic time.
+	@Param({ "10", "1000", "100000" })
+	public int children;
+
+	// writeValue() closes its target by default, and the shared sink can't be written once closed.
+	private final ObjectMapper mapper = new ObjectMapper()
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	private final OutputStream sink = OutputStream.nullOutputStream();
+	private Project project;
+
+	@Setup
+	public void setUp() {
+		project = new Project();
+		project.setProjectId(1);
+		project.setProjectName("Build a \"deluxe\" birdhouse");
+		project.setEstimatedHours(new BigDecimal("12.50"));
+		project.setActualHours(new BigDecimal("14.25"));
+		project.setDifficulty(3);
+		project.setNotes("Use cedar.\nSeal the roof twice.");
+
+		for(int i = 1; i <= children; i++) {
+			Material material = new Material();
+			material.setMaterialId(i);
+			material.setProjectId(1);
+			material.setMaterialName("Material " + i);
+			material.setNumRequired(i % 7 + 1);
+			material.setCost(new BigDecimal("3.99"));
+			project.getMaterials().add(material);
+
+			Step step = new Step();
+			step.setStepId(i);
+			step.setProjectId(1);
+			step.setStepText("Do step " + i + " carefully");
+			step.setStepOrder(i);
+			project.getSteps().add(step);
+		}
+
+		Category category = new Category();
+		category.setCategoryId(1);
+		category.setCategoryName("Woodworking");
+		project.getCategories().add(category);
+	}
+
+	@Benchmark
+	public void projectJsonWriter() throws IOException {
+		ProjectJsonWriter json = new ProjectJsonWriter(sink);
+		json.writeProject(project);
+		json.flush();
+	}
+
+	@Benchmark
+	public void jacksonObjectMapper() throws IOException {
+		mapper.writeValue(sink, project);
+	}
+}
@@ -0,0 +1,37 @@
+package provided.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Converts entity field names to column names with {@link EntityMapper#camelCaseToSnakeCase}. The
+ * mapper only does this once per entity class, so this matters for start-up rather than per row.
+ *
+ * @author Promineo
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CamelCaseBenchmark {
+  @Param({"notes", "projectId", "estimatedHours", "numRequired"})
+  public String fieldName;
+
+  @Benchmark
+  public String camelCaseToSnakeCase() {
+    return EntityMapper.camelCaseToSnakeCase(fieldName);
+  }
+}
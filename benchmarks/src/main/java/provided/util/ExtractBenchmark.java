@@ -0,0 +1,109 @@
+package provided.util;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import projects.entity.Project;
+
+/**
+ * Compares the original per-row reflection in extract with the cached {@link EntityMapper}. Scores
+ * are rows per second.
+ *
+ * @author Promineo
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExtractBenchmark {
+  static final int ROWS = 1000;
+
+  private static final String[] PROJECT_COLUMNS = {"project_id", "project_name",
+      "estimated_hours", "actual_hours", "difficulty", "notes"};
+
+  private final DaoBase dao = new DaoBase() {};
+  private FakeResultSet projects;
+
+  @Setup
+  public void setUp() {
+    List<Object[]> rows = new ArrayList<>(ROWS);
+
+    for(int i = 1; i <= ROWS; i++) {
+      rows.add(new Object[] {i, "Project " + i, new BigDecimal("12.50"), new BigDecimal("10.25"),
+          i % 5 + 1, "Notes for project " + i});
+    }
+
+    projects = new FakeResultSet(PROJECT_COLUMNS, rows);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void reflectionPerRow(Blackhole bh) throws Exception {
+    ResultSet rs = projects.rewind();
+
+    while(rs.next()) {
+      bh.consume(legacyExtract(rs, Project.class));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void cachedMapper(Blackhole bh) throws Exception {
+    ResultSet rs = projects.rewind();
+    RowMapper<Project> mapper = dao.rowMapper(rs, Project.class);
+
+    while(rs.next()) {
+      bh.consume(mapper.map());
+    }
+  }
+
+  /**
+   * The extract implementation as it was before mappers were cached, kept here as the baseline.
+   */
+  private static <T> T legacyExtract(ResultSet rs, Class<T> classType) throws Exception {
+    Constructor<T> con = classType.getConstructor();
+    T obj = con.newInstance();
+
+    for(Field field : classType.getDeclaredFields()) {
+      String colName = EntityMapper.camelCaseToSnakeCase(field.getName());
+      field.setAccessible(true);
+      Object fieldValue = null;
+
+      try {
+        fieldValue = rs.getObject(colName);
+      }
+      catch(SQLException e) {
+        // Column not in the result set.
+      }
+
+      if(Objects.nonNull(fieldValue)) {
+        field.set(obj, fieldValue);
+      }
+    }
+
+    return obj;
+  }
+}
@@ -0,0 +1,81 @@
+package provided.util;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+
+/**
+ * An in-memory {@link PreparedStatement} that keeps the bound parameter values instead of sending
+ * them anywhere. Used to benchmark parameter binding without a database. Only the setters used by
+ * the DAO code and the batch and close methods are implemented.
+ *
+ * @author Promineo
+ *
+ */
+public class FakePreparedStatement {
+  private final Object[] parameters;
+  private final PreparedStatement statement;
+  private int batches;
+
+  /**
+   * @param parameterCount The number of parameter markers in the statement.
+   */
+  public FakePreparedStatement(int parameterCount) {
+    parameters = new Object[parameterCount + 1];
+
+    statement = (PreparedStatement)Proxy.newProxyInstance(
+        PreparedStatement.class.getClassLoader(), new Class<?>[] {PreparedStatement.class},
+        (proxy, method, args) -> {
+          switch(method.getName()) {
+            case "setNull":
+              parameters[(Integer)args[0]] = null;
+              return null;
+            case "setInt":
+            case "setDouble":
+            case "setString":
+            case "setBigDecimal":
+            case "setObject":
+              parameters[(Integer)args[0]] = args[1];
+              return null;
+            case "clearParameters":
+              Arrays.fill(parameters, null);
+              return null;
+            case "addBatch":
+              batches++;
+              return null;
+            case "executeUpdate":
+              return 1;
+            case "close":
+              return null;
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+
+  /**
+   * @return The statement view.
+   */
+  public PreparedStatement statement() {
+    return statement;
+  }
+
+  /**
+   * @param parameterIndex The one-based parameter index.
+   * @return The value last bound to the parameter.
+   */
+  public Object parameter(int parameterIndex) {
+    return parameters[parameterIndex];
+  }
+
+  /**
+   * @return The number of times addBatch() was called.
+   */
+  public int batches() {
+    return batches;
+  }
+}
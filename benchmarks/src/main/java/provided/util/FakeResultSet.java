@@ -0,0 +1,129 @@
+package provided.util;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An in-memory, forward-only {@link ResultSet} used to benchmark the mapping layer without a
+ * database. Only the methods used by the DAO code are implemented. Like the MySQL driver, asking
+ * for a column label that is not in the result set throws an {@link SQLException}.
+ *
+ * @author Promineo
+ *
+ */
+public class FakeResultSet {
+  private final String[] labels;
+  private final List<Object[]> rows;
+  private final Map<String, Integer> indexByLabel = new HashMap<>();
+  private ResultSet resultSet;
+  private final ResultSetMetaData metaData;
+  private int cursor = -1;
+  private boolean lastWasNull;
+
+  /**
+   * @param labels The column labels, in column order.
+   * @param rows The row values. Each array is in the same order as the labels.
+   */
+  public FakeResultSet(String[] labels, List<Object[]> rows) {
+    this.labels = labels.clone();
+    this.rows = rows;
+
+    for(int i = 0; i < labels.length; i++) {
+      indexByLabel.putIfAbsent(labels[i], i + 1);
+    }
+
+    metaData = (ResultSetMetaData)Proxy.newProxyInstance(
+        ResultSetMetaData.class.getClassLoader(), new Class<?>[] {ResultSetMetaData.class},
+        (proxy, method, args) -> {
+          switch(method.getName()) {
+            case "getColumnCount":
+              return this.labels.length;
+            case "getColumnLabel":
+            case "getColumnName":
+              return this.labels[(Integer)args[0] - 1];
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+
+    resultSet = newResultSet();
+  }
+
+  /**
+   * @return The result set view of the rows.
+   */
+  public ResultSet resultSet() {
+    return resultSet;
+  }
+
+  /**
+   * Moves the cursor back before the first row so the same data can be read again. A new
+   * {@link ResultSet} instance is returned each time, as a new query would, so nothing keyed on
+   * the previous instance carries over.
+   *
+   * @return The result set view of the rows.
+   */
+  public ResultSet rewind() {
+    cursor = -1;
+    resultSet = newResultSet();
+    return resultSet;
+  }
+
+  private ResultSet newResultSet() {
+    return (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+        new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+          switch(method.getName()) {
+            case "next":
+              return ++cursor < rows.size();
+            case "getObject":
+              return value(args[0]);
+            case "getInt": {
+              Object value = value(args[0]);
+              return lastWasNull ? 0 : ((Number)value).intValue();
+            }
+            case "getLong": {
+              Object value = value(args[0]);
+              return lastWasNull ? 0L : ((Number)value).longValue();
+            }
+            case "getString":
+              return value(args[0]);
+            case "wasNull":
+              return lastWasNull;
+            case "getMetaData":
+              return metaData;
+            case "close":
+              return null;
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+
+  private Object value(Object column) throws SQLException {
+    Integer index;
+
+    if(column instanceof Integer) {
+      index = (Integer)column;
+    }
+    else {
+      index = indexByLabel.get(column);
+
+      if(index == null) {
+        throw new SQLException("Column '" + column + "' not found.");
+      }
+    }
+
+    Object value = rows.get(cursor)[index - 1];
+    lastWasNull = value == null;
+    return value;
+  }
+}
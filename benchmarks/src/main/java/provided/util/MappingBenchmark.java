@@ -0,0 +1,120 @@
+package provided.util;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+
+/**
+ * Maps a whole result set of each entity type with {@link DaoBase#rowMapper}, at several row counts.
+ * A score is the time to map every row of one result set, so it includes the per-result-set column
+ * binding as well as the per-row work. Run with -prof gc (the default of BenchmarkMain) for the
+ * allocation rate.
+ *
+ * @author Promineo
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MappingBenchmark {
+  @Param({"project", "material", "step", "category", "summary"})
+  public String entity;
+
+  @Param({"1", "100", "10000"})
+  public int rows;
+
+  private final DaoBase dao = new DaoBase() {};
+  private FakeResultSet resultSet;
+  private Class<?> classType;
+
+  @Setup
+  public void setUp() {
+    List<Object[]> data = new ArrayList<>(rows);
+    String[] columns;
+
+    switch(entity) {
+      case "project":
+        classType = Project.class;
+        columns = new String[] {"project_id", "project_name", "estimated_hours", "actual_hours",
+            "difficulty", "notes"};
+        for(int i = 1; i <= rows; i++) {
+          data.add(new Object[] {i, "Project " + i, new BigDecimal("12.50"),
+              new BigDecimal("10.25"), i % 5 + 1, i % 3 == 0 ? null : "Notes for project " + i});
+        }
+        break;
+
+      case "material":
+        classType = Material.class;
+        columns = new String[] {"material_id", "project_id", "material_name", "num_required",
+            "cost"};
+        for(int i = 1; i <= rows; i++) {
+          data.add(new Object[] {i, i % 50 + 1, "Material " + i, i % 9 + 1,
+              new BigDecimal("3.99")});
+        }
+        break;
+
+      case "step":
+        classType = Step.class;
+        columns = new String[] {"step_id", "project_id", "step_text", "step_order"};
+        for(int i = 1; i <= rows; i++) {
+          data.add(new Object[] {i, i % 50 + 1, "Do step " + i + " carefully", i});
+        }
+        break;
+
+      case "category":
+        classType = Category.class;
+        columns = new String[] {"category_id", "category_name"};
+        for(int i = 1; i <= rows; i++) {
+          data.add(new Object[] {i, "Category " + i});
+        }
+        break;
+
+      case "summary":
+        classType = ProjectSummary.class;
+        columns = new String[] {"project_id", "project_name"};
+        for(int i = 1; i <= rows; i++) {
+          data.add(new Object[] {i, "Project " + i});
+        }
+        break;
+
+      default:
+        throw new IllegalArgumentException("Unknown entity " + entity);
+    }
+
+    resultSet = new FakeResultSet(columns, data);
+  }
+
+  @Benchmark
+  public void extractAll(Blackhole bh) throws Exception {
+    ResultSet rs = resultSet.rewind();
+    RowMapper<?> mapper = dao.rowMapper(rs, classType);
+
+    while(rs.next()) {
+      bh.consume(mapper.map());
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package projects.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import projects.dao.ProjectDao;
+import projects.entity.Page;
+import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.exception.DbException;
+
+/*
+ * Stand-in for ProjectDao that keeps project rows in a concurrent map, so the service
+ * layer can be load tested without MySQL. Every call can be slowed down by a fixed
+ * latency to imitate the round trip to the database.
+ *
+ * Only the operations used by the load generator are implemented. Projects are stored
+ * and returned as copies, like rows read back from a table. Pages are ordered by ID
+ * rather than by name.
+ */
+class InMemoryProjectDao extends ProjectDao {
+	private final ConcurrentSkipListMap<Integer, Project> projects = new ConcurrentSkipListMap<>();
+	private final AtomicInteger nextId = new AtomicInteger();
+	private final long latencyNanos;
+
+	InMemoryProjectDao(long latencyMicros) {
+		this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+	}
+
+	@Override
+	public Project insertProject(Project project) {
+		roundTrip();
+		store(project);
+		return project;
+	}
+
+	@Override
+	public List<Project> insertProjects(List<Project> projects, int batchSize) {
+		roundTrip();
+		projects.forEach(this::store);
+		return projects;
+	}
+
+	@Override
+	public Optional<Project> fetchProjectById(Integer projectId) {
+		roundTrip();
+		return Optional.ofNullable(projects.get(projectId)).map(Project::copy);
+	}
+
+	@Override
+	public List<Project> fetchProjectsByIds(Collection<Integer> projectIds) {
+		roundTrip();
+		List<Project> found = new ArrayList<>();
+
+		for (Integer projectId : projectIds) {
+			Project project = projects.get(projectId);
+
+			if (Objects.nonNull(project)) {
+				found.add(project.copy());
+			}
+		}
+
+		return found;
+	}
+
+	@Override
+	public List<Project> fetchAllProjects() {
+		roundTrip();
+		List<Project> all = new ArrayList<>();
+		projects.values().forEach(project -> all.add(project.copy()));
+		return all;
+	}
+
+	@Override
+	public Page<ProjectSummary> fetchProjectSummaryPage(String pageToken, int pageSize) {
+		roundTrip();
+
+		int size = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+		ConcurrentNavigableMap<Integer, Project> rest = Objects.isNull(pageToken)
+				? projects
+				: projects.tailMap(parseToken(pageToken), false);
+
+		List<ProjectSummary> items = new ArrayList<>(size);
+		Integer lastId = null;
+
+		for (Map.Entry<Integer, Project> entry : rest.entrySet()) {
+			if (items.size() == size) {
+				return new Page<>(items, lastId.toString());
+			}
+
+			ProjectSummary summary = new ProjectSummary();
+			summary.setProjectId(entry.getKey());
+			summary.setProjectName(entry.getValue().getProjectName());
+			items.add(summary);
+			lastId = entry.getKey();
+		}
+
+		return new Page<>(items, null);
+	}
+
+	/*
+	 * Applies the changed columns to the stored row, as the UPDATE in ProjectDao would.
+	 * With no changes it only checks that the project exists, like ProjectDao.
+	 */
+	@Override
+	public boolean modifyProjectDetails(Project project) {
+		if (project.changedColumns().isEmpty()) {
+			roundTrip();
+			return projects.containsKey(project.getProjectId());
+		}
+
+		roundTrip();
+
+		Project updated = projects.computeIfPresent(project.getProjectId(), (id, stored) -> {
+			Project row = stored.copy();
+
+			for (String column : project.changedColumns()) {
+				switch (column) {
+				case "project_name":
+					row.setProjectName(project.getProjectName());
+					break;
+				case "estimated_hours":
+					row.setEstimatedHours(project.getEstimatedHours());
+					break;
+				case "actual_hours":
+					row.setActualHours(project.getActualHours());
+					break;
+				case "difficulty":
+					row.setDifficulty(project.getDifficulty());
+					break;
+				case "notes":
+					row.setNotes(project.getNotes());
+					break;
+				default:
+					throw new DbException("Unknown project column " + column + ".");
+				}
+			}
+
+			return row;
+		});
+
+		if (Objects.isNull(updated)) {
+			return false;
+		}
+
+		project.clearChanges();
+		return true;
+	}
+
+	@Override
+	public boolean deleteProject(Integer projectId) {
+		roundTrip();
+		return Objects.nonNull(projects.remove(projectId));
+	}
+
+	private void store(Project project) {
+		project.setProjectId(nextId.incrementAndGet());
+		project.clearChanges();
+		projects.put(project.getProjectId(), project.copy());
+	}
+
+	private void roundTrip() {
+		if (latencyNanos > 0) {
+			LockSupport.parkNanos(latencyNanos);
+		}
+	}
+
+	private static Integer parseToken(String pageToken) {
+		try {
+			return Integer.valueOf(pageToken);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+		}
+	}
+}
@@ -0,0 +1,535 @@
+package projects.loadtest;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+import projects.dao.ConnectionPool;
+import projects.dao.DbConnection;
+import projects.entity.Project;
+import projects.service.CacheStats;
+import projects.service.ProjectService;
+
+/*
+ * Drives ProjectService from many threads with a weighted mix of operations and reports
+ * throughput and latency percentiles per operation, so changes to the service and DAO can
+ * be compared by numbers.
+ *
+ * Options, all --name=value:
+ *   target     mysql (the database configured in DbConnection) or memory (InMemoryProjectDao)
+ *   threads    number of concurrent workers
+ *   virtual    true to run each worker on a virtual thread (Java 21+)
+ *   duration   seconds measured
+ *   warmup     seconds run before measuring
+ *   mix        weights, e.g. insert=10,read=60,update=15,delete=5,list=10
+ *   seed       projects inserted before the run, so reads have something to find
+ *   latency    simulated round trip per DAO call in microseconds (memory target only)
+ *
+ * Each worker runs operations back to back (a closed loop), so latencies are those seen by
+ * a caller that waits for each operation before starting the next. Projects created by the
+ * run, including the seed, are deleted at the end.
+ */
+public class LoadGenerator {
+	// Longest latency the histograms can hold; slower operations are recorded as this.
+	private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+	private static final int SIGNIFICANT_DIGITS = 3;
+	private static final int LIST_PAGE_SIZE = 20;
+
+	private static final Map<String, String> DEFAULTS = Map.of(
+			"target", "memory",
+			"threads", "16",
+			"virtual", "false",
+			"duration", "30",
+			"warmup", "5",
+			"mix", "insert=10,read=60,update=15,delete=5,list=10",
+			"seed", "1000",
+			"latency", "0");
+
+	private final ProjectService projectService;
+	private final Mix mix;
+	private final ProjectIds projectIds = new ProjectIds();
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = parseOptions(args);
+
+		if (Objects.isNull(options)) {
+			System.out.println("Usage: LoadGenerator [--name=value ...]. Options and defaults: " + DEFAULTS);
+			return;
+		}
+
+		boolean memory = options.get("target").equals("memory");
+
+		if (!memory && !options.get("target").equals("mysql")) {
+			throw new IllegalArgumentException("target must be mysql or memory.");
+		}
+
+		ProjectService projectService = memory
+				? new ProjectService(new InMemoryProjectDao(Long.parseLong(options.get("latency"))))
+				: new ProjectService();
+
+		LoadGenerator generator = new LoadGenerator(projectService, Mix.parse(options.get("mix")));
+		int threads = Integer.parseInt(options.get("threads"));
+		boolean virtual = Boolean.parseBoolean(options.get("virtual"));
+
+		System.out.println("Target " + options.get("target") + ", " + threads
+				+ (virtual ? " virtual" : " platform") + " threads, mix " + options.get("mix"));
+
+		try {
+			generator.seed(Integer.parseInt(options.get("seed")));
+
+			Result result = generator.run(threads, virtual, Long.parseLong(options.get("warmup")),
+					Long.parseLong(options.get("duration")));
+
+			result.print();
+			printServiceStats(projectService, memory);
+		} finally {
+			generator.cleanUp();
+
+			if (!memory) {
+				DbConnection.shutdown();
+			}
+		}
+	}
+
+	public LoadGenerator(ProjectService projectService, Mix mix) {
+		this.projectService = projectService;
+		this.mix = mix;
+	}
+
+	/*
+	 * Inserts count projects in one batch call.
+	 */
+	void seed(int count) {
+		List<Project> projects = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			projects.add(newProject("load-seed-" + i));
+		}
+
+		projectService.addProjects(projects);
+		projects.forEach(project -> projectIds.add(project.getProjectId()));
+	}
+
+	/*
+	 * Runs the workers for the warm-up and measured periods and merges their histograms.
+	 */
+	Result run(int threads, boolean virtual, long warmupSeconds, long durationSeconds)
+			throws Exception {
+		long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+		long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+		ExecutorService executor = newExecutor(threads, virtual);
+		List<Future<Worker>> workers = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < threads; i++) {
+				Worker worker = new Worker(i, measureFrom, measureUntil);
+				workers.add(executor.submit(() -> {
+					worker.run();
+					return worker;
+				}));
+			}
+
+			Result result = new Result(durationSeconds);
+
+			for (Future<Worker> worker : workers) {
+				result.add(worker.get());
+			}
+
+			return result;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/*
+	 * Deletes the projects still left from the seed and the run's inserts.
+	 */
+	void cleanUp() {
+		for (Integer projectId = projectIds.take(); Objects.nonNull(projectId);
+				projectId = projectIds.take()) {
+			try {
+				projectService.deleteProject(projectId);
+			} catch (NoSuchElementException e) {
+				// Already gone.
+			}
+		}
+	}
+
+	/*
+	 * One thread's loop. Latencies are recorded only between measureFrom and measureUntil.
+	 */
+	private class Worker implements Runnable {
+		private final int number;
+		private final long measureFrom;
+		private final long measureUntil;
+		private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+		private int inserted;
+
+		Worker(int number, long measureFrom, long measureUntil) {
+			this.number = number;
+			this.measureFrom = measureFrom;
+			this.measureUntil = measureUntil;
+
+			for (Operation operation : Operation.values()) {
+				stats.put(operation, new Stats());
+			}
+		}
+
+		@Override
+		public void run() {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+
+			while (true) {
+				Operation operation = mix.pick(random);
+				long start = System.nanoTime();
+
+				if (start >= measureUntil || Thread.currentThread().isInterrupted()) {
+					return;
+				}
+
+				Outcome outcome;
+
+				try {
+					outcome = perform(operation, random);
+				} catch (NoSuchElementException e) {
+					outcome = Outcome.NOT_FOUND;
+				} catch (RuntimeException e) {
+					outcome = Outcome.ERROR;
+				}
+
+				long end = System.nanoTime();
+
+				if (start >= measureFrom && end <= measureUntil) {
+					stats.get(operation).record(outcome, end - start);
+				}
+			}
+		}
+
+		/*
+		 * Runs one operation. Reads, updates and deletes pick a random project created by the run;
+		 * one deleted by another worker in the meantime counts as not found.
+		 */
+		private Outcome perform(Operation operation, ThreadLocalRandom random) {
+			Integer projectId;
+
+			switch (operation) {
+			case INSERT:
+				Project project = newProject("load-" + number + "-" + inserted++);
+				projectService.addProject(project);
+				projectIds.add(project.getProjectId());
+				return Outcome.OK;
+
+			case READ:
+				projectId = projectIds.pick(random);
+
+				if (Objects.isNull(projectId)) {
+					return Outcome.NOT_FOUND;
+				}
+
+				projectService.fetchProjectById(projectId);
+				return Outcome.OK;
+
+			case UPDATE:
+				projectId = projectIds.pick(random);
+
+				if (Objects.isNull(projectId)) {
+					return Outcome.NOT_FOUND;
+				}
+
+				Project changes = new Project();
+				changes.setProjectId(projectId);
+				changes.setNotes("Updated by worker " + number + " at " + System.nanoTime());
+				projectService.modifyProjectDetails(changes);
+				return Outcome.OK;
+
+			case DELETE:
+				projectId = projectIds.take(random);
+
+				if (Objects.isNull(projectId)) {
+					return Outcome.NOT_FOUND;
+				}
+
+				projectService.deleteProject(projectId);
+				return Outcome.OK;
+
+			case LIST:
+				projectService.fetchProjectSummaryPage(null, LIST_PAGE_SIZE);
+				return Outcome.OK;
+
+			default:
+				throw new IllegalStateException("Unknown operation " + operation);
+			}
+		}
+	}
+
+	private static Project newProject(String name) {
+		Project project = new Project();
+
+		project.setProjectName(name);
+		project.setEstimatedHours(new BigDecimal("4.00"));
+		project.setActualHours(new BigDecimal("5.50"));
+		project.setDifficulty(3);
+		project.setNotes("Created by the load generator.");
+
+		return project;
+	}
+
+	enum Operation {
+		INSERT, READ, UPDATE, DELETE, LIST
+	}
+
+	private enum Outcome {
+		OK, NOT_FOUND, ERROR
+	}
+
+	/*
+	 * Weighted choice of operations, parsed from "insert=10,read=60,...".
+	 * Operations left out of the mix are never run.
+	 */
+	static class Mix {
+		private final Operation[] operations;
+		private final int[] cumulative;
+		private final int total;
+
+		private Mix(Map<Operation, Integer> weights) {
+			operations = weights.keySet().toArray(new Operation[0]);
+			cumulative = new int[operations.length];
+
+			int sum = 0;
+
+			for (int i = 0; i < operations.length; i++) {
+				sum += weights.get(operations[i]);
+				cumulative[i] = sum;
+			}
+
+			if (sum <= 0) {
+				throw new IllegalArgumentException("The mix needs at least one positive weight.");
+			}
+
+			total = sum;
+		}
+
+		static Mix parse(String mix) {
+			Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+
+			for (String part : mix.split(",")) {
+				String[] pair = part.trim().split("=");
+
+				if (pair.length != 2) {
+					throw new IllegalArgumentException("Expected operation=weight, not " + part);
+				}
+
+				int weight = Integer.parseInt(pair[1].trim());
+
+				if (weight < 0) {
+					throw new IllegalArgumentException("Negative weight for " + pair[0]);
+				}
+
+				weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+			}
+
+			return new Mix(weights);
+		}
+
+		Operation pick(ThreadLocalRandom random) {
+			int value = random.nextInt(total);
+
+			for (int i = 0; i < cumulative.length; i++) {
+				if (value < cumulative[i]) {
+					return operations[i];
+				}
+			}
+
+			return operations[operations.length - 1];
+		}
+	}
+
+	/*
+	 * IDs of the live projects created by this run. Picking is random; taking removes the ID
+	 * so two workers never delete the same project.
+	 */
+	private static class ProjectIds {
+		private int[] ids = new int[1024];
+		private int size;
+
+		synchronized void add(int projectId) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+
+			ids[size++] = projectId;
+		}
+
+		synchronized Integer pick(ThreadLocalRandom random) {
+			return size == 0 ? null : ids[random.nextInt(size)];
+		}
+
+		synchronized Integer take(ThreadLocalRandom random) {
+			return size == 0 ? null : removeAt(random.nextInt(size));
+		}
+
+		synchronized Integer take() {
+			return size == 0 ? null : removeAt(size - 1);
+		}
+
+		private int removeAt(int index) {
+			int projectId = ids[index];
+			ids[index] = ids[--size];
+			return projectId;
+		}
+	}
+
+	/*
+	 * Latencies and outcome counts of one operation.
+	 */
+	private static class Stats {
+		private final Histogram latency = new Histogram(MAX_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+		private long notFound;
+		private long errors;
+
+		void record(Outcome outcome, long nanos) {
+			latency.recordValue(Math.min(nanos, MAX_LATENCY_NANOS));
+
+			if (outcome == Outcome.NOT_FOUND) {
+				notFound++;
+			} else if (outcome == Outcome.ERROR) {
+				errors++;
+			}
+		}
+
+		void add(Stats other) {
+			latency.add(other.latency);
+			notFound += other.notFound;
+			errors += other.errors;
+		}
+	}
+
+	/*
+	 * All workers' statistics, merged per operation.
+	 */
+	private static class Result {
+		private final long durationSeconds;
+		private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+		private final Stats total = new Stats();
+
+		Result(long durationSeconds) {
+			this.durationSeconds = durationSeconds;
+
+			for (Operation operation : Operation.values()) {
+				stats.put(operation, new Stats());
+			}
+		}
+
+		void add(Worker worker) {
+			worker.stats.forEach((operation, workerStats) -> {
+				stats.get(operation).add(workerStats);
+				total.add(workerStats);
+			});
+		}
+
+		void print() {
+			System.out.printf("%n%-8s %10s %10s %8s %9s %9s %9s %9s %9s %9s%n", "op", "count", "ops/s",
+					"errors", "notfound", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+			stats.forEach((operation, s) -> {
+				if (s.latency.getTotalCount() > 0) {
+					printRow(operation.name().toLowerCase(), s);
+				}
+			});
+
+			printRow("total", total);
+		}
+
+		private void printRow(String name, Stats s) {
+			Histogram h = s.latency;
+			long count = h.getTotalCount();
+
+			System.out.printf("%-8s %10d %10.1f %8d %9d %9.3f %9.3f %9.3f %9.3f %9.3f%n", name, count,
+					durationSeconds > 0 ? (double)count / durationSeconds : 0.0, s.errors, s.notFound,
+					millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+					millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)),
+					millis(h.getMaxValue()));
+		}
+
+		private static double millis(long nanos) {
+			return nanos / 1e6;
+		}
+	}
+
+	private static void printServiceStats(ProjectService projectService, boolean memory) {
+		CacheStats cache = projectService.getCacheStats();
+
+		System.out.println("\nProject cache: " + cache);
+		System.out.println("Loads issued=" + projectService.getIssuedLoads() + ", coalesced="
+				+ projectService.getCoalescedLoads());
+
+		if (!memory) {
+			ConnectionPool pool = DbConnection.getPool();
+
+			System.out.println("Statement cache: hits=" + pool.getStatementCacheHits() + ", misses="
+					+ pool.getStatementCacheMisses() + ", evictions=" + pool.getStatementCacheEvictions());
+		}
+	}
+
+	/*
+	 * One thread per worker. Virtual threads are looked up reflectively so the module still
+	 * builds for Java 11.
+	 */
+	private static ExecutorService newExecutor(int threads, boolean virtual) {
+		if (virtual) {
+			try {
+				Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				return (ExecutorService)factory.invoke(null);
+			} catch (ReflectiveOperationException e) {
+				System.out.println("Virtual threads are not available; using platform threads.");
+			}
+		}
+
+		return Executors.newFixedThreadPool(threads);
+	}
+
+	/*
+	 * Parses --name=value options over the defaults. Returns null when help is asked for.
+	 */
+	private static Map<String, String> parseOptions(String[] args) {
+		Map<String, String> options = new HashMap<>(DEFAULTS);
+
+		for (String arg : args) {
+			if (arg.equals("help") || arg.equals("--help")) {
+				return null;
+			}
+
+			int equals = arg.indexOf('=');
+
+			if (!arg.startsWith("--") || equals < 0) {
+				throw new IllegalArgumentException("Expected --name=value, not " + arg);
+			}
+
+			String name = arg.substring(2, equals);
+
+			if (!DEFAULTS.containsKey(name)) {
+				throw new IllegalArgumentException("Unknown option " + name + ". Options: "
+						+ DEFAULTS.keySet());
+			}
+
+			options.put(name, arg.substring(equals + 1));
+		}
+
+		return options;
+	}
+}
@@ -0,0 +1,414 @@
+package projects;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import projects.dao.DbConnection;
+import projects.entity.Page;
+import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.exception.DbException;
+import projects.service.ProjectService;
+
+/*
+ * Non-interactive version of the menu app. Reads one command per line from a file or stdin
+ * and runs it against the ProjectService, so the app can be driven by scripts and tests.
+ *
+ *   add name|estimatedHours|actualHours|difficulty|notes   add a project (trailing fields optional)
+ *   list                                                   list every project ID and name
+ *   select id                                              make a project the current project
+ *   update name|estimatedHours|actualHours|difficulty|notes  update the current project;
+ *                                                          blank fields keep their value
+ *   delete id                                              delete a project
+ *
+ * Blank lines and lines starting with # are skipped. A failing command is reported with its
+ * line number and the script carries on, like the menu does.
+ *
+ * Consecutive add commands are collected and sent with ProjectService.addProjects(), one
+ * JDBC batch over one connection, when a different command comes along or the input ends.
+ * If a batch fails, its adds are retried one at a time, so only the failing lines are reported.
+ * Output is buffered rather than flushed per line, and ends with a throughput and latency summary.
+ */
+public class ProjectScript {
+	// Largest number of adds collected before they are sent.
+	private static final int MAX_ADD_BATCH = 1000;
+	private static final int LIST_PAGE_SIZE = 100;
+
+	private final ProjectService projectService;
+	private final PrintWriter out;
+
+	private final List<PendingAdd> pendingAdds = new ArrayList<>();
+	private final Map<String, Timings> timings = new LinkedHashMap<>();
+	private Project curProject;
+	private int commands;
+	private int errors;
+
+	/*
+	 * Runs the script named by the only argument, or stdin when it is "-".
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: ProjectScript <script file | ->");
+			System.exit(2);
+		}
+
+		PrintWriter out = new PrintWriter(new BufferedWriter(
+				new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024));
+
+		try (Reader in = "-".equals(args[0])
+				? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+				: Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+			new ProjectScript(new ProjectService(), out).run(in);
+		} finally {
+			out.flush();
+			DbConnection.shutdown();
+		}
+	}
+
+	public ProjectScript(ProjectService projectService, PrintWriter out) {
+		this.projectService = projectService;
+		this.out = out;
+	}
+
+	/*
+	 * Runs every command in the input, then prints the summary.
+	 */
+	public void run(Reader input) throws IOException {
+		BufferedReader reader = new BufferedReader(input);
+		long start = System.nanoTime();
+		String line;
+		int lineNumber = 0;
+
+		while (Objects.nonNull(line = reader.readLine())) {
+			lineNumber++;
+			line = line.trim();
+
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+
+			commands++;
+			runCommand(lineNumber, line);
+		}
+
+		flushAdds();
+		printSummary(System.nanoTime() - start);
+		out.flush();
+	}
+
+	private void runCommand(int lineNumber, String line) {
+		int space = line.indexOf(' ');
+		String command = (space < 0 ? line : line.substring(0, space)).toLowerCase();
+		String arguments = space < 0 ? "" : line.substring(space + 1).trim();
+
+		try {
+			if (command.equals("add")) {
+				Project project = parseProject(arguments);
+
+				// Checked here so the add fails at its own line, not later with its whole batch.
+				if (Objects.isNull(project.getProjectName())) {
+					throw new DbException("A project name is required.");
+				}
+
+				pendingAdds.add(new PendingAdd(lineNumber, project));
+
+				if (pendingAdds.size() >= MAX_ADD_BATCH) {
+					flushAdds();
+				}
+				return;
+			}
+
+			// Anything else may depend on the adds before it, so they go first.
+			flushAdds();
+
+			long start = System.nanoTime();
+
+			switch (command) {
+			case "list":
+				listProjects();
+				break;
+			case "select":
+				selectProject(parseId(arguments));
+				break;
+			case "update":
+				updateProjectDetails(arguments);
+				break;
+			case "delete":
+				deleteProject(parseId(arguments));
+				break;
+			default:
+				throw new DbException(command + " is not a valid command.");
+			}
+
+			timingsFor(command).record(System.nanoTime() - start, 1);
+		} catch (Exception e) {
+			errors++;
+			out.println("line " + lineNumber + ": Error: " + e);
+		}
+	}
+
+	/*
+	 * Sends the collected adds as one batch. If the batch fails, the adds that weren't committed
+	 * are retried one at a time, and each one that still fails is reported with its line number.
+	 */
+	private void flushAdds() {
+		if (pendingAdds.isEmpty()) {
+			return;
+		}
+
+		List<PendingAdd> adds = new ArrayList<>(pendingAdds);
+		List<Project> batch = new ArrayList<>(adds.size());
+		pendingAdds.clear();
+
+		for (PendingAdd add : adds) {
+			batch.add(add.project);
+		}
+
+		long start = System.nanoTime();
+
+		try {
+			projectService.addProjects(batch);
+			timingsFor("add").record(System.nanoTime() - start, batch.size());
+		} catch (Exception e) {
+			retryAdds(adds);
+			return;
+		}
+
+		for (Project project : batch) {
+			printAdded(project);
+		}
+	}
+
+	/*
+	 * Adds each project of a failed batch on its own. Projects that got an ID were in a part
+	 * of the batch that was committed before the failure, so they aren't added again.
+	 */
+	private void retryAdds(List<PendingAdd> adds) {
+		for (PendingAdd add : adds) {
+			if (Objects.isNull(add.project.getProjectId())) {
+				long start = System.nanoTime();
+
+				try {
+					projectService.addProject(add.project);
+				} catch (Exception e) {
+					errors++;
+					out.println("line " + add.lineNumber + ": Error: " + e);
+					continue;
+				}
+
+				timingsFor("add").record(System.nanoTime() - start, 1);
+			}
+
+			printAdded(add.project);
+		}
+	}
+
+	private void printAdded(Project project) {
+		out.println("Added project ID=" + project.getProjectId() + ": " + project.getProjectName());
+	}
+
+	private void listProjects() {
+		String pageToken = null;
+
+		out.println("Projects:");
+
+		do {
+			Page<ProjectSummary> page = projectService.fetchProjectSummaryPage(pageToken, LIST_PAGE_SIZE);
+
+			for (ProjectSummary project : page.getItems()) {
+				out.println("  " + project.getProjectId() + ": " + project.getProjectName());
+			}
+
+			pageToken = page.getNextPageToken();
+		} while (Objects.nonNull(pageToken));
+	}
+
+	private void selectProject(Integer projectId) {
+		curProject = null;
+		curProject = projectService.fetchProjectById(projectId);
+		out.println("Selected project ID=" + projectId + ": " + curProject.getProjectName());
+	}
+
+	/*
+	 * Applies the non-blank fields to the current project and saves the changed columns.
+	 * On failure the current project is reloaded, as in the menu app.
+	 */
+	private void updateProjectDetails(String arguments) {
+		if (Objects.isNull(curProject)) {
+			throw new DbException("No project is selected.");
+		}
+
+		Project changes = parseProject(arguments);
+
+		if (Objects.nonNull(changes.getProjectName())) {
+			curProject.setProjectName(changes.getProjectName());
+		}
+		if (Objects.nonNull(changes.getEstimatedHours())) {
+			curProject.setEstimatedHours(changes.getEstimatedHours());
+		}
+		if (Objects.nonNull(changes.getActualHours())) {
+			curProject.setActualHours(changes.getActualHours());
+		}
+		if (Objects.nonNull(changes.getDifficulty())) {
+			curProject.setDifficulty(changes.getDifficulty());
+		}
+		if (Objects.nonNull(changes.getNotes())) {
+			curProject.setNotes(changes.getNotes());
+		}
+
+		try {
+			projectService.modifyProjectDetails(curProject);
+		} catch (RuntimeException e) {
+			curProject = projectService.fetchProjectById(curProject.getProjectId());
+			throw e;
+		}
+
+		out.println("Updated project ID=" + curProject.getProjectId());
+	}
+
+	private void deleteProject(Integer projectId) {
+		projectService.deleteProject(projectId);
+		out.println("Project ID=" + projectId + " was deleted.");
+
+		if (Objects.nonNull(curProject) && curProject.getProjectId().equals(projectId)) {
+			curProject = null;
+		}
+	}
+
+	/*
+	 * Parses name|estimatedHours|actualHours|difficulty|notes. Missing or blank fields are null.
+	 */
+	private static Project parseProject(String arguments) {
+		String[] fields = Arrays.copyOf(arguments.split("\\|", 5), 5);
+		Project project = new Project();
+
+		project.setProjectName(blankToNull(fields[0]));
+		project.setEstimatedHours(parseDecimal(blankToNull(fields[1])));
+		project.setActualHours(parseDecimal(blankToNull(fields[2])));
+		project.setDifficulty(parseInteger(blankToNull(fields[3])));
+		project.setNotes(blankToNull(fields[4]));
+
+		return project;
+	}
+
+	private static Integer parseId(String arguments) {
+		Integer projectId = parseInteger(blankToNull(arguments));
+
+		if (Objects.isNull(projectId)) {
+			throw new DbException("A project ID is required.");
+		}
+
+		return projectId;
+	}
+
+	private static String blankToNull(String field) {
+		return Objects.isNull(field) || field.isBlank() ? null : field.trim();
+	}
+
+	private static BigDecimal parseDecimal(String input) {
+		if (Objects.isNull(input)) {
+			return null;
+		}
+		try {
+			return new BigDecimal(input).setScale(2);
+		} catch (NumberFormatException | ArithmeticException e) {
+			throw new DbException(input + " is not a valid decimal number.");
+		}
+	}
+
+	private static Integer parseInteger(String input) {
+		if (Objects.isNull(input)) {
+			return null;
+		}
+		try {
+			return Integer.valueOf(input);
+		} catch (NumberFormatException e) {
+			throw new DbException(input + " is not a valid number.");
+		}
+	}
+
+	private Timings timingsFor(String command) {
+		return timings.computeIfAbsent(command, key -> new Timings());
+	}
+
+	/*
+	 * Prints commands per second for the whole run, then call latencies per command.
+	 * An add batch is one call covering many commands.
+	 */
+	private void printSummary(long elapsedNanos) {
+		double seconds = elapsedNanos / 1e9;
+
+		out.println();
+		out.printf("%d commands in %.3f s (%.1f commands/s), %d errors%n", commands, seconds,
+				seconds > 0 ? commands / seconds : 0.0, errors);
+
+		timings.forEach((command, t) -> out.printf(
+				"  %-7s %7d commands %6d calls   mean %8.2f ms   p50 %8.2f ms   p95 %8.2f ms   max %8.2f ms%n",
+				command, t.commands, t.count, t.meanMillis(), t.percentileMillis(50),
+				t.percentileMillis(95), t.percentileMillis(100)));
+	}
+
+	/*
+	 * An add waiting to be sent, with the script line it came from.
+	 */
+	private static class PendingAdd {
+		private final int lineNumber;
+		private final Project project;
+
+		PendingAdd(int lineNumber, Project project) {
+			this.lineNumber = lineNumber;
+			this.project = project;
+		}
+	}
+
+	/*
+	 * Latencies of the calls made for one command type.
+	 */
+	private static class Timings {
+		private long[] nanos = new long[64];
+		private int count;
+		private long commands;
+		private long total;
+
+		void record(long elapsedNanos, int commandsCovered) {
+			if (count == nanos.length) {
+				nanos = Arrays.copyOf(nanos, count * 2);
+			}
+
+			nanos[count++] = elapsedNanos;
+			total += elapsedNanos;
+			commands += commandsCovered;
+		}
+
+		double meanMillis() {
+			return count == 0 ? 0 : total / 1e6 / count;
+		}
+
+		double percentileMillis(int percentile) {
+			if (count == 0) {
+				return 0;
+			}
+
+			long[] sorted = Arrays.copyOf(nanos, count);
+			Arrays.sort(sorted);
+
+			int index = (int)Math.ceil(percentile / 100.0 * count) - 1;
+			return sorted[Math.max(0, index)] / 1e6;
+		}
+	}
+}
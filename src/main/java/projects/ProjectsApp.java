@@ -1,12 +1,17 @@
 package projects;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Scanner;
 
+import projects.dao.MigrationRunner;
+import projects.dao.SchemaVerifier;
+import projects.entity.Page;
 import projects.entity.Project;
+import projects.entity.ProjectSummary;
 import projects.exception.DbException;
 import projects.service.ProjectService;
 
@@ -19,6 +24,12 @@ public class ProjectsApp {
 	private ProjectService projectService = new ProjectService();
 	private Project curProject;
 	
+	// Number of projects shown at a time when listing projects.
+	private static final int LIST_PAGE_SIZE = 20;
+	
+	// Materials, steps and categories of the current project shown with the menu.
+	private static final int MENU_CHILD_LIMIT = 10;
+	
 	// @formatter:off
 	private List<String> operations = List.of(
 		"1) Add a project",
@@ -31,8 +42,18 @@ public class ProjectsApp {
 	
 	/*
 	 * Main method for the app. The entry point for the user.
+	 * With a script file (or "-" for stdin) as the argument, runs the commands in it
+	 * instead of the menu. See ProjectScript.
 	 */
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
+		MigrationRunner.migrateAtStartup();
+		SchemaVerifier.warnIfIndexesMissing();
+		
+		if (args.length > 0) {
+			ProjectScript.main(args);
+			return;
+		}
+		
 		new ProjectsApp().processUserSelections();
 	}
 	
@@ -117,23 +138,34 @@ public class ProjectsApp {
 		Integer difficulty = getIntInput("Enter the project difficulty [" + curProject.getDifficulty() + "]");
 		String notes = getStringInput("Enter the project notes [" + curProject.getNotes() + "]");
 		
-		// New Project object to hold user input.
-		Project project = new Project();
-		
-		// Project ID will remain the same. Does not need to be user input.
-		project.setProjectId(curProject.getProjectId());
-		// Setter to use the user input to update the fields
-		project.setProjectName(Objects.isNull(projectName) ? curProject.getProjectName() : projectName);
-		project.setEstimatedHours(Objects.isNull(estimatedHours) ? curProject.getEstimatedHours() : estimatedHours);
-		project.setActualHours(Objects.isNull(actualHours) ? curProject.getActualHours() : actualHours);
-		project.setDifficulty(Objects.isNull(difficulty) ? curProject.getDifficulty() : difficulty);
-		project.setNotes(Objects.isNull(notes) ? curProject.getNotes() : notes);
-		
-		// Sending the selected project ID & updated information to the Service layer.
-		projectService.modifyProjectDetails(project);
-		curProject = projectService.fetchProjectById(curProject.getProjectId());
-
+		// Setters only record a change when the value is different, so blank input changes nothing.
+		if (Objects.nonNull(projectName)) {
+			curProject.setProjectName(projectName);
+		}
+		if (Objects.nonNull(estimatedHours)) {
+			curProject.setEstimatedHours(estimatedHours);
+		}
+		if (Objects.nonNull(actualHours)) {
+			curProject.setActualHours(actualHours);
+		}
+		if (Objects.nonNull(difficulty)) {
+			curProject.setDifficulty(difficulty);
+		}
+		if (Objects.nonNull(notes)) {
+			curProject.setNotes(notes);
+		}
 		
+		/*
+		 * Sending the changed columns to the Service layer. On success the current project already
+		 * holds the new values, so it isn't fetched again. On failure it is reloaded so it doesn't
+		 * show edits that were never saved.
+		 */
+		try {
+			projectService.modifyProjectDetails(curProject);
+		} catch (RuntimeException e) {
+			curProject = projectService.fetchProjectById(curProject.getProjectId());
+			throw e;
+		}
 	}
 	
 	/*
@@ -154,16 +186,31 @@ public class ProjectsApp {
 	}
 
 	/*
-	 * Method to call for the list of available projects
+	 * Method to call for the list of available projects.
+	 * Projects are fetched a page at a time. The user is asked before the next page is shown.
 	 */
 	private void listProjects() {
-		List<Project> projects = projectService.fetchAllProjects();
+		String pageToken = null;
 		
 		System.out.println("\nProjects:");
 		
-		// Lambda to print the project names to console
-		projects.forEach(project -> System.out.println("  " + project.getProjectId() 
-			+ ": " + project.getProjectName()));
+		do {
+			Page<ProjectSummary> page = projectService.fetchProjectSummaryPage(pageToken, LIST_PAGE_SIZE);
+			
+			// Lambda to print the project names to console
+			page.getItems().forEach(project -> System.out.println("  " + project.getProjectId() 
+				+ ": " + project.getProjectName()));
+			
+			pageToken = page.getNextPageToken();
+		} while (Objects.nonNull(pageToken) && wantsMoreProjects());
+	}
+	
+	/*
+	 * Asks whether to show another page of projects.
+	 */
+	private boolean wantsMoreProjects() {
+		String input = getStringInput("Enter 'm' to list more projects, or press Enter to continue");
+		return "m".equalsIgnoreCase(input);
 	}
 
 	/*
@@ -268,7 +315,8 @@ public class ProjectsApp {
 		if(Objects.isNull(curProject)) {
 			System.out.println("\nYou are not working with a project.");
 		} else {
-			System.out.println("\nYou are working with project: " + curProject);
+			System.out.println("\nYou are working with project: "
+					+ curProject.toString(MENU_CHILD_LIMIT));
 		}
 	}
 
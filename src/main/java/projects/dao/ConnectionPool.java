@@ -0,0 +1,449 @@
+package projects.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import projects.exception.DbException;
+import projects.metrics.MetricsRegistry;
+
+/*
+ * A bounded pool of JDBC connections. Connections are borrowed with getConnection()
+ * and handed back to the pool when the caller closes them, so the DAO can keep using
+ * try-with-resources exactly as it would with a DriverManager connection.
+ *
+ * The pool keeps at least minSize connections open, starting as soon as it is created,
+ * never opens more than maxSize, closes connections that have sat idle longer than
+ * idleTimeout (down to minSize) or that are older than maxLifetime, and validates every
+ * connection before handing it out.
+ * A caller that cannot get a connection within borrowTimeout gets a DbException.
+ *
+ * Each connection keeps an LRU StatementCache of up to statementCacheSize prepared
+ * statements that lives as long as the physical connection. Hit, miss and eviction
+ * counts for all connections are available from the pool.
+ */
+public class ConnectionPool implements AutoCloseable {
+	private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+	private final String url;
+	private final int minSize;
+	private final int maxSize;
+	private final long idleTimeoutMillis;
+	private final long maxLifetimeMillis;
+	private final long borrowTimeoutMillis;
+	private final int statementCacheSize;
+
+	private final LongAdder statementCacheHits = new LongAdder();
+	private final LongAdder statementCacheMisses = new LongAdder();
+	private final LongAdder statementCacheEvictions = new LongAdder();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition released = lock.newCondition();
+	// Most recently returned connection sits at the head so hot connections are reused first.
+	private final Deque<PooledConnection> idle = new ArrayDeque<>();
+	private final ScheduledExecutorService housekeeper;
+	private int totalConnections;
+	private boolean closed;
+
+	public ConnectionPool(String url, int minSize, int maxSize, long idleTimeoutMillis,
+			long maxLifetimeMillis, long borrowTimeoutMillis, int statementCacheSize) {
+		if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+			throw new IllegalArgumentException(
+					"Invalid pool size: min=" + minSize + ", max=" + maxSize);
+		}
+
+		this.url = url;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.maxLifetimeMillis = maxLifetimeMillis;
+		this.borrowTimeoutMillis = borrowTimeoutMillis;
+		this.statementCacheSize = statementCacheSize;
+
+		housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		/*
+		 * The first run happens straight away and opens the minSize connections. It runs on the
+		 * housekeeper thread, so creating the pool neither waits for nor fails on the database.
+		 */
+		long period = Math.max(1000, Math.min(idleTimeoutMillis, maxLifetimeMillis) / 2);
+		housekeeper.scheduleWithFixedDelay(this::evict, 0, period, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * Borrows a connection from the pool, opening a new one if the pool has room.
+	 * Waits up to the borrow timeout for a connection to be returned when the pool is full.
+	 * The time taken, wait included, is recorded as the connection acquire metric.
+	 */
+	public Connection getConnection() {
+		long start = System.nanoTime();
+		boolean failed = true;
+
+		try {
+			Connection conn = borrow(start);
+			failed = false;
+			return conn;
+		} finally {
+			MetricsRegistry.get().recordConnectionAcquire(System.nanoTime() - start, failed);
+		}
+	}
+
+	private Connection borrow(long start) {
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+		while (true) {
+			PooledConnection pooled = takeIdleOrReserve(deadline);
+
+			// null means a slot was reserved for a brand new physical connection.
+			if (pooled == null) {
+				return open().newProxy();
+			}
+
+			if (isUsable(pooled)) {
+				return pooled.newProxy();
+			}
+
+			discard(pooled);
+		}
+	}
+
+	/*
+	 * Takes an idle connection, or reserves room for a new one (returns null),
+	 * or waits for one to be released.
+	 */
+	private PooledConnection takeIdleOrReserve(long deadline) {
+		lock.lock();
+
+		try {
+			while (true) {
+				if (closed) {
+					throw new DbException("The connection pool has been closed.");
+				}
+
+				PooledConnection pooled = idle.pollFirst();
+
+				if (pooled != null) {
+					return pooled;
+				}
+
+				if (totalConnections < maxSize) {
+					totalConnections++;
+					return null;
+				}
+
+				long remaining = deadline - System.nanoTime();
+
+				if (remaining <= 0) {
+					throw new DbException("Timed out after " + borrowTimeoutMillis
+							+ "ms waiting for a database connection (pool size=" + maxSize + ").");
+				}
+
+				released.awaitNanos(remaining);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Interrupted while waiting for a database connection.", e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/*
+	 * Opens a physical connection for a slot that has already been reserved.
+	 */
+	private PooledConnection open() {
+		try {
+			return new PooledConnection(DriverManager.getConnection(url));
+		} catch (SQLException e) {
+			releaseSlot();
+			throw new DbException(e);
+		}
+	}
+
+	/*
+	 * Validation on borrow. Expired or broken connections are thrown away.
+	 */
+	private boolean isUsable(PooledConnection pooled) {
+		if (pooled.isExpired()) {
+			return false;
+		}
+
+		try {
+			return pooled.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/*
+	 * Called when the caller closes its proxy. Resets the connection state so the next
+	 * borrower starts clean, then puts it back in the pool.
+	 */
+	private void release(PooledConnection pooled) {
+		boolean reusable = !pooled.isExpired();
+
+		try {
+			if (!pooled.connection.getAutoCommit()) {
+				// Anything left uncommitted by the borrower is abandoned.
+				pooled.connection.rollback();
+				pooled.connection.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			reusable = false;
+		}
+
+		if (!reusable) {
+			discard(pooled);
+			return;
+		}
+
+		lock.lock();
+
+		try {
+			if (closed) {
+				totalConnections--;
+			} else {
+				pooled.lastUsed = System.currentTimeMillis();
+				idle.addFirst(pooled);
+				released.signal();
+				return;
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		closeQuietly(pooled);
+	}
+
+	private void discard(PooledConnection pooled) {
+		releaseSlot();
+		closeQuietly(pooled);
+	}
+
+	private void releaseSlot() {
+		lock.lock();
+
+		try {
+			totalConnections--;
+			released.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/*
+	 * Housekeeping run on a background thread: drops connections that have been idle
+	 * too long (while keeping minSize around) or have outlived maxLifetime, then tops
+	 * the pool back up to minSize.
+	 */
+	private void evict() {
+		Deque<PooledConnection> evicted = new ArrayDeque<>();
+		int toOpen;
+		long now = System.currentTimeMillis();
+
+		lock.lock();
+
+		try {
+			if (closed) {
+				return;
+			}
+
+			// Oldest idle connections are at the tail.
+			Iterator<PooledConnection> it = idle.descendingIterator();
+
+			while (it.hasNext()) {
+				PooledConnection pooled = it.next();
+				boolean idleTooLong = now - pooled.lastUsed > idleTimeoutMillis
+						&& totalConnections > minSize;
+
+				if (idleTooLong || pooled.isExpired()) {
+					it.remove();
+					totalConnections--;
+					evicted.add(pooled);
+				}
+			}
+
+			toOpen = Math.max(0, minSize - totalConnections);
+			totalConnections += toOpen;
+		} finally {
+			lock.unlock();
+		}
+
+		evicted.forEach(this::closeQuietly);
+
+		for (int i = 0; i < toOpen; i++) {
+			try {
+				release(new PooledConnection(DriverManager.getConnection(url)));
+			} catch (SQLException e) {
+				// The database may be down. Give the slot back and try again on the next run.
+				releaseSlot();
+			}
+		}
+	}
+
+	public long getStatementCacheHits() {
+		return statementCacheHits.sum();
+	}
+
+	public long getStatementCacheMisses() {
+		return statementCacheMisses.sum();
+	}
+
+	public long getStatementCacheEvictions() {
+		return statementCacheEvictions.sum();
+	}
+
+	/*
+	 * Closes all idle connections. Connections still on loan are closed as they are returned.
+	 */
+	@Override
+	public void close() {
+		Deque<PooledConnection> toClose;
+
+		lock.lock();
+
+		try {
+			closed = true;
+			toClose = new ArrayDeque<>(idle);
+			totalConnections -= idle.size();
+			idle.clear();
+			released.signalAll();
+		} finally {
+			lock.unlock();
+		}
+
+		housekeeper.shutdownNow();
+		toClose.forEach(this::closeQuietly);
+	}
+
+	private void closeQuietly(PooledConnection pooled) {
+		try {
+			pooled.connection.close();
+		} catch (SQLException e) {
+			// Nothing useful can be done if close fails.
+		}
+	}
+
+	/*
+	 * A physical connection plus the bookkeeping the pool needs for it.
+	 */
+	private class PooledConnection {
+		private final Connection connection;
+		private final StatementCache statements = new StatementCache(statementCacheSize,
+				statementCacheHits, statementCacheMisses, statementCacheEvictions);
+		private final long created = System.currentTimeMillis();
+		private long lastUsed = created;
+
+		PooledConnection(Connection connection) {
+			this.connection = connection;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() - created > maxLifetimeMillis;
+		}
+
+		/*
+		 * Each borrow gets its own proxy so a stale reference kept by a previous
+		 * borrower cannot touch the connection after it has been returned.
+		 */
+		Connection newProxy() {
+			return (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new LoanHandler(this));
+		}
+	}
+
+	/*
+	 * Forwards calls to the physical connection, except close() which returns it to the pool
+	 * and prepareStatement() which goes through the connection's statement cache.
+	 */
+	private class LoanHandler implements InvocationHandler {
+		private final PooledConnection pooled;
+		// Statements handed out during this loan, closed (returned to the cache) with the loan.
+		private final List<Statement> statements = new ArrayList<>();
+		private boolean returned;
+
+		LoanHandler(PooledConnection pooled) {
+			this.pooled = pooled;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!returned) {
+					returned = true;
+					closeStatements();
+					release(pooled);
+				}
+				return null;
+			case "isClosed":
+				return returned || pooled.connection.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Pooled " + pooled.connection;
+			default:
+				break;
+			}
+
+			if (returned) {
+				throw new SQLException("Connection has been returned to the pool.");
+			}
+
+			if (StatementCache.isCacheable(method)) {
+				PreparedStatement stmt = pooled.statements.prepare(pooled.connection,
+						(Connection)proxy, method, args);
+				statements.add(stmt);
+				return stmt;
+			}
+
+			Object result;
+
+			try {
+				result = method.invoke(pooled.connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+
+			// Plain statements aren't cached, but their executions are still timed.
+			return method.getName().equals("createStatement")
+					? StatementTimer.wrap((Statement)result)
+					: result;
+		}
+
+		private void closeStatements() {
+			for (Statement stmt : statements) {
+				try {
+					stmt.close();
+				} catch (SQLException e) {
+					// The statement is dropped from the cache.
+				}
+			}
+
+			statements.clear();
+		}
+	}
+}
@@ -1,12 +1,12 @@
 package projects.dao;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
-
-import projects.exception.DbException;
-
 
+/*
+ * Hands out connections to the projects schema. Connections come from a shared
+ * ConnectionPool, so closing a connection returns it to the pool instead of
+ * tearing down the TCP connection to MySQL.
+ */
 public class DbConnection {
 
 	private static String HOST = "localhost";
@@ -14,18 +14,48 @@ public class DbConnection {
 	private static int PORT = 3306;
 	private static String SCHEMA = "projects";
 	private static String USER = "projects";
-	
-	public static Connection getConnection() {
-		String url = String.format("jdbc:mysql://%s:%d/%s?user=%s&password=%s&useSSL-false",
+
+	private static int POOL_MIN_SIZE = 2;
+	private static int POOL_MAX_SIZE = 10;
+	private static long POOL_IDLE_TIMEOUT_MS = 10 * 60 * 1000;
+	private static long POOL_MAX_LIFETIME_MS = 30 * 60 * 1000;
+	private static long POOL_BORROW_TIMEOUT_MS = 5 * 1000;
+	private static int STATEMENT_CACHE_SIZE = 100;
+
+	private static final ConnectionPool POOL = new ConnectionPool(buildUrl(), POOL_MIN_SIZE,
+			POOL_MAX_SIZE, POOL_IDLE_TIMEOUT_MS, POOL_MAX_LIFETIME_MS, POOL_BORROW_TIMEOUT_MS,
+			STATEMENT_CACHE_SIZE);
+
+	private static String buildUrl() {
+		/*
+		 * allowMultiQueries lets the DAO send several statements in one round trip.
+		 * useCursorFetch makes statements with a fetch size read through a server-side cursor.
+		 * rewriteBatchedStatements sends a JDBC batch of inserts as one multi-row INSERT.
+		 */
+		return String.format("jdbc:mysql://%s:%d/%s?user=%s&password=%s&useSSL=false"
+				+ "&allowMultiQueries=true&useCursorFetch=true&rewriteBatchedStatements=true",
 				HOST, PORT, SCHEMA, USER, PASSWORD);
-		try {
-			Connection conn = DriverManager.getConnection(url);
-			System.out.println("Connection successful");
-			return conn;
-		} catch (SQLException e){
-			System.out.println("Error obtaining connection :'(");
-			throw new DbException(e);
-		}
 	}
-	
+
+	/*
+	 * Borrows a connection from the pool. Callers must close it (try-with-resources)
+	 * to hand it back.
+	 */
+	public static Connection getConnection() {
+		return POOL.getConnection();
+	}
+
+	/*
+	 * The shared pool, for reading its statistics.
+	 */
+	public static ConnectionPool getPool() {
+		return POOL;
+	}
+
+	/*
+	 * Closes the pooled connections. Used when the application shuts down.
+	 */
+	public static void shutdown() {
+		POOL.close();
+	}
 }
@@ -0,0 +1,310 @@
+package projects.dao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import projects.exception.DbException;
+
+/*
+ * Brings the schema up to date without dropping anything. Migrations are SQL scripts under
+ * db/migration/ on the classpath, named V<version>__<description>.sql and listed in order in
+ * db/migration/migrations.txt. Each one that is not yet recorded in the schema_version table
+ * is run and then recorded, so a database only ever moves forward.
+ *
+ * Statements in a script end with a semicolon at the end of a line; lines starting with --
+ * are comments. Index changes should be written with ALGORITHM=INPLACE, LOCK=NONE so MySQL
+ * builds them online instead of blocking writes for the length of the build.
+ *
+ * MySQL commits each DDL statement on its own, so a script that fails part way is not
+ * rolled back. The scripts whose changes are also in projects_schema.sql (V2 and V4) may
+ * find them already there, so for those scripts only, errors saying so (duplicate index,
+ * second primary key, index already dropped) are skipped. In any other script these errors
+ * fail the migration like every other error, so a clashing index name or a mistyped
+ * DROP INDEX is never recorded as applied.
+ *
+ * A named lock keeps two instances starting at the same time from migrating at once.
+ */
+public class MigrationRunner {
+	private static final String MIGRATION_DIR = "db/migration/";
+	private static final String MIGRATION_LIST = MIGRATION_DIR + "migrations.txt";
+	private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+	private static final Pattern STATEMENT_END = Pattern.compile(";[ \\t]*(\\r?\\n|$)");
+
+	private static final String LOCK_NAME = "projects.schema_migration";
+	private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+	private static final int ER_DUP_KEYNAME = 1061;
+	private static final int ER_MULTIPLE_PRI_KEY = 1068;
+	private static final int ER_CANT_DROP_FIELD_OR_KEY = 1091;
+
+	// The errors each script may skip because its change can already be in the schema.
+	// @formatter:off
+	private static final Map<String, Set<Integer>> ALREADY_APPLIED_ERRORS = Map.of(
+		"V2__add_lookup_indexes.sql",
+			Set.of(ER_DUP_KEYNAME, ER_MULTIPLE_PRI_KEY, ER_CANT_DROP_FIELD_OR_KEY),
+		"V4__unique_category_name.sql",
+			Set.of(ER_DUP_KEYNAME)
+	);
+	// @formatter:on
+
+	// @formatter:off
+	private static final String CREATE_VERSION_TABLE_SQL = ""
+			+ "CREATE TABLE IF NOT EXISTS schema_version ("
+			+ " version INT NOT NULL,"
+			+ " description VARCHAR(200) NOT NULL,"
+			+ " script VARCHAR(200) NOT NULL,"
+			+ " checksum BIGINT NOT NULL,"
+			+ " installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,"
+			+ " execution_ms INT NOT NULL,"
+			+ " PRIMARY KEY (version)"
+			+ ")";
+	private static final String FETCH_VERSIONS_SQL = "SELECT version, checksum FROM schema_version";
+	private static final String INSERT_VERSION_SQL = ""
+			+ "INSERT INTO schema_version (version, description, script, checksum, execution_ms)"
+			+ " VALUES (?, ?, ?, ?, ?)";
+	// @formatter:on
+
+	/*
+	 * Runs the pending migrations, printing a line for each. If they can't be run, for example
+	 * because the database is down, the error is printed and the application carries on.
+	 */
+	public static void migrateAtStartup() {
+		try {
+			migrate();
+		} catch (DbException e) {
+			System.out.println("Warning: schema migrations were not applied: " + e.getMessage());
+		}
+	}
+
+	/*
+	 * Runs every listed migration that hasn't been applied yet, in version order.
+	 * Returns the number of migrations applied.
+	 */
+	public static int migrate() {
+		List<Migration> migrations = loadMigrations();
+
+		try (Connection conn = DbConnection.getConnection()) {
+			acquireLock(conn);
+
+			try {
+				return applyPending(conn, migrations);
+			} finally {
+				releaseLock(conn);
+			}
+		} catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	private static int applyPending(Connection conn, List<Migration> migrations) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			stmt.execute(CREATE_VERSION_TABLE_SQL);
+		}
+
+		Map<Integer, Long> applied = fetchAppliedVersions(conn);
+		int count = 0;
+
+		for (Migration migration : migrations) {
+			Long checksum = applied.get(migration.version);
+
+			if (Objects.nonNull(checksum)) {
+				if (checksum != migration.checksum) {
+					System.out.println("Warning: migration " + migration.script
+							+ " has changed since it was applied.");
+				}
+				continue;
+			}
+
+			long start = System.currentTimeMillis();
+
+			runScript(conn, migration);
+			recordVersion(conn, migration, System.currentTimeMillis() - start);
+			count++;
+
+			System.out.println("Applied migration " + migration.script + " in "
+					+ (System.currentTimeMillis() - start) + "ms.");
+		}
+
+		return count;
+	}
+
+	private static Map<Integer, Long> fetchAppliedVersions(Connection conn) throws SQLException {
+		Map<Integer, Long> applied = new HashMap<>();
+
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery(FETCH_VERSIONS_SQL)) {
+			while (rs.next()) {
+				applied.put(rs.getInt(1), rs.getLong(2));
+			}
+		}
+
+		return applied;
+	}
+
+	private static void runScript(Connection conn, Migration migration) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			for (String sql : splitStatements(migration.sql)) {
+				try {
+					stmt.execute(sql);
+				} catch (SQLException e) {
+					if (!isAlreadyApplied(migration.script, e.getErrorCode())) {
+						throw new DbException(
+								"Migration " + migration.script + " failed: " + e.getMessage(), e);
+					}
+				}
+			}
+		}
+	}
+
+	private static void recordVersion(Connection conn, Migration migration, long elapsedMillis)
+			throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(INSERT_VERSION_SQL)) {
+			stmt.setInt(1, migration.version);
+			stmt.setString(2, migration.description);
+			stmt.setString(3, migration.script);
+			stmt.setLong(4, migration.checksum);
+			stmt.setLong(5, elapsedMillis);
+			stmt.executeUpdate();
+		}
+	}
+
+	private static void acquireLock(Connection conn) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+			stmt.setString(1, LOCK_NAME);
+			stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (!rs.next() || rs.getInt(1) != 1) {
+					throw new DbException("Timed out waiting for another instance to finish migrating.");
+				}
+			}
+		}
+	}
+
+	/*
+	 * The lock belongs to the session, so it must be released before the connection goes
+	 * back to the pool.
+	 */
+	private static void releaseLock(Connection conn) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+			stmt.setString(1, LOCK_NAME);
+			stmt.executeQuery().close();
+		}
+	}
+
+	/*
+	 * Returns true if the error means the script's change is already in the schema, and the
+	 * script is one of those allowed to find it there.
+	 */
+	static boolean isAlreadyApplied(String script, int errorCode) {
+		return ALREADY_APPLIED_ERRORS.getOrDefault(script, Set.of()).contains(errorCode);
+	}
+
+	/*
+	 * Returns a script's statements without comment lines or the terminating semicolons.
+	 * A statement ends at a semicolon that is last on its line (trailing spaces aside) or
+	 * last in the script; a semicolon anywhere else is part of the statement.
+	 */
+	static List<String> splitStatements(String sql) {
+		String withoutComments = sql.lines()
+				.filter(line -> !line.trim().startsWith("--"))
+				.collect(Collectors.joining("\n"));
+		List<String> statements = new ArrayList<>();
+
+		for (String statement : STATEMENT_END.split(withoutComments)) {
+			if (!statement.isBlank()) {
+				statements.add(statement.trim());
+			}
+		}
+
+		return statements;
+	}
+
+	/*
+	 * Reads the migration list and the scripts it names. Versions must increase down the list.
+	 */
+	private static List<Migration> loadMigrations() {
+		List<Migration> migrations = new ArrayList<>();
+		int lastVersion = 0;
+
+		for (String line : readResource(MIGRATION_LIST).split("\\r?\\n")) {
+			String script = line.trim();
+
+			if (script.isEmpty() || script.startsWith("#")) {
+				continue;
+			}
+
+			Matcher name = SCRIPT_NAME.matcher(script);
+
+			if (!name.matches()) {
+				throw new DbException("Migration " + script + " is not named V<version>__<description>.sql.");
+			}
+
+			int version = Integer.parseInt(name.group(1));
+
+			if (version <= lastVersion) {
+				throw new DbException("Migration " + script + " is out of order in " + MIGRATION_LIST + ".");
+			}
+
+			migrations.add(new Migration(version, name.group(2).replace('_', ' '), script,
+					readResource(MIGRATION_DIR + script)));
+			lastVersion = version;
+		}
+
+		return migrations;
+	}
+
+	private static String readResource(String path) {
+		InputStream in = MigrationRunner.class.getClassLoader().getResourceAsStream(path);
+
+		if (Objects.isNull(in)) {
+			throw new DbException("Resource " + path + " was not found on the classpath.");
+		}
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			return reader.lines().collect(Collectors.joining("\n"));
+		} catch (IOException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/*
+	 * One script from the migration list.
+	 */
+	private static class Migration {
+		private final int version;
+		private final String description;
+		private final String script;
+		private final String sql;
+		private final long checksum;
+
+		Migration(int version, String description, String script, String sql) {
+			this.version = version;
+			this.description = description;
+			this.script = script;
+			this.sql = sql;
+
+			CRC32 crc = new CRC32();
+			crc.update(sql.getBytes(StandardCharsets.UTF_8));
+			this.checksum = crc.getValue();
+		}
+	}
+}
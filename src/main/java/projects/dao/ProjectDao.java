@@ -1,25 +1,43 @@
 package projects.dao;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-
-import com.mysql.cj.protocol.Resultset;
-import com.mysql.cj.x.protobuf.MysqlxPrepare.Prepare;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import projects.entity.Category;
 import projects.entity.Material;
+import projects.entity.Page;
 import projects.entity.Project;
+import projects.entity.ProjectSummary;
 import projects.entity.Step;
 import projects.exception.DbException;
 import provided.util.DaoBase;
+import provided.util.RowMapper;
 
 /*
  * DAO layer class that uses JDBC to perform CRUD operations on the DB
@@ -32,11 +50,98 @@ public class ProjectDao extends DaoBase {
 	private static final String STEP_TABLE = "step";
 
 	/*
-	 * Method to return a specified project by project ID and its materials, steps, and categories
+	 * Maximum number of project IDs per IN list when loading several projects. Each chunk binds
+	 * four IN lists, which keeps the statement well below MySQL's placeholder limit.
+	 */
+	private static final int FETCH_CHUNK_SIZE = 500;
+
+	// Number of rows sent and committed together by insertProjects().
+	public static final int DEFAULT_INSERT_BATCH_SIZE = 1000;
+
+	// Number of rows pulled from the server cursor at a time when streaming projects.
+	private static final int STREAM_FETCH_SIZE = 200;
+
+	// Upper bound on the number of rows returned by one page of a paged listing.
+	public static final int MAX_PAGE_SIZE = 100;
+
+	// Explicit column lists so that queries only pull back what the entities map.
+	private static final String PROJECT_COLUMNS =
+			"project_id, project_name, estimated_hours, actual_hours, difficulty, notes";
+	private static final String MATERIAL_COLUMNS =
+			"material_id, project_id, material_name, num_required, cost";
+	private static final String STEP_COLUMNS = "step_id, project_id, step_text, step_order";
+	private static final String SUMMARY_COLUMNS = "project_id, project_name";
+
+	/*
+	 * SQL is built once, here, rather than on every call. Sending the same text each time
+	 * also lets the statement cache on the pooled connections reuse the prepared statements.
+	 */
+	// @formatter:off
+	private static final String FETCH_ALL_PROJECTS_SQL = ""
+			+ "SELECT " + PROJECT_COLUMNS + " FROM " + PROJECT_TABLE + " ORDER BY project_name";
+	
+	private static final String FETCH_SUMMARIES_SQL = ""
+			+ "SELECT " + SUMMARY_COLUMNS + " FROM " + PROJECT_TABLE + " ORDER BY project_name";
+	
+	private static final String PROJECT_FIRST_PAGE_SQL = pageSql(PROJECT_COLUMNS, false);
+	private static final String PROJECT_NEXT_PAGE_SQL = pageSql(PROJECT_COLUMNS, true);
+	private static final String SUMMARY_FIRST_PAGE_SQL = pageSql(SUMMARY_COLUMNS, false);
+	private static final String SUMMARY_NEXT_PAGE_SQL = pageSql(SUMMARY_COLUMNS, true);
+	
+	private static final String INSERT_PROJECT_SQL = ""
+			+ "INSERT INTO " + PROJECT_TABLE + " "
+			+ "(project_name, estimated_hours, actual_hours, difficulty, notes) "
+			+ "VALUES "
+			+ "(?, ?, ?, ?, ?)";
+	
+	private static final String INSERT_MATERIAL_SQL = ""
+			+ "INSERT INTO " + MATERIAL_TABLE + " "
+			+ "(project_id, material_name, num_required, cost) "
+			+ "VALUES "
+			+ "(?, ?, ?, ?)";
+	
+	private static final String INSERT_STEP_SQL = ""
+			+ "INSERT INTO " + STEP_TABLE + " "
+			+ "(project_id, step_text, step_order) "
+			+ "VALUES "
+			+ "(?, ?, ?)";
+	
+	/*
+	 * category_name is unique, so a name another transaction has just created hits the key.
+	 * LAST_INSERT_ID(category_id) then makes the generated key the existing row's ID.
+	 */
+	private static final String INSERT_CATEGORY_SQL = ""
+			+ "INSERT INTO " + CATEGORY_TABLE + " (category_name) VALUES (?) "
+			+ "ON DUPLICATE KEY UPDATE category_id = LAST_INSERT_ID(category_id)";
+	
+	private static final String INSERT_PROJECT_CATEGORY_SQL = ""
+			+ "INSERT INTO " + PROJECT_CATEGORY_TABLE + " (project_id, category_id) VALUES (?, ?)";
+	
+	private static final String DELETE_PROJECT_SQL = ""
+			+ "DELETE FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+	
+	private static final String PROJECT_EXISTS_SQL = ""
+			+ "SELECT 1 FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+	// @formatter:on
+
+	/*
+	 * The project columns that modifyProjectDetails() can write, in the order they appear in
+	 * its UPDATE statements, and those statements keyed by the columns they set.
+	 */
+	private static final List<String> UPDATABLE_COLUMNS =
+			List.of("project_name", "estimated_hours", "actual_hours", "difficulty", "notes");
+	private static final Map<List<String>, String> UPDATE_SQL = new ConcurrentHashMap<>();
+
+	/*
+	 * Multi-statement graph loads, keyed by the number of IDs in their IN lists. See graphSql().
+	 */
+	private static final Map<Integer, String> GRAPH_SQL = new ConcurrentHashMap<>();
+
+	/*
+	 * Method to return a specified project by project ID and its materials, steps, and categories.
+	 * The project and all of its children are read in a single round trip to the DB.
 	 */
 	public Optional<Project> fetchProjectById(Integer projectId) {
-		String sql = "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id = ?";
-		
 		try(Connection conn = DbConnection.getConnection()) {
 			startTransaction(conn);
 			/*
@@ -44,25 +149,10 @@ public class ProjectDao extends DaoBase {
 			 * details, or roll back the transaction if an error occurs.
 			 */
 			try {
-				Project project = null;
-				try(PreparedStatement stmt = conn.prepareStatement(sql)) {
-					setParameter(stmt, 1, projectId, Integer.class);
-					try(ResultSet rs = stmt.executeQuery()) {
-						if (rs.next()) {
-							project = extract(rs, Project.class);
-						}
-					}
-				}
-				
-				// quality of life null check to prevent unnecessary DB calls.
-				if (Objects.nonNull(project)) {
-				project.getMaterials().addAll(fetchMaterialsForProject(conn, projectId));
-				project.getSteps().addAll(fetchStepsForProject(conn, projectId));
-				project.getCategories().addAll(fetchCategoriesForProject(conn, projectId));
-				}
+				Map<Integer, Project> projects = fetchProjectGraphs(conn, List.of(projectId));
 				commitTransaction(conn);
 				
-				return Optional.ofNullable(project);
+				return Optional.ofNullable(projects.get(projectId));
 				
 			} catch (Exception e) {
 				rollbackTransaction(conn);
@@ -73,91 +163,202 @@ public class ProjectDao extends DaoBase {
 		}
 	}
 
-/*
- * Method to return the materials associated with the project id passed in.
- * Transaction is started by the calling method fetchProjectById()
- */
-private List<Material> fetchMaterialsForProject(Connection conn,
-		Integer projectId) throws SQLException {
-	String sql = "SELECT * FROM " + MATERIAL_TABLE + " WHERE project_id = ?";
-	
-	try(PreparedStatement stmt = conn.prepareStatement(sql)) {
-		setParameter(stmt, 1, projectId, Integer.class);
+	/*
+	 * Method to return many projects, each with its materials, steps and categories.
+	 * IDs are loaded in chunks of FETCH_CHUNK_SIZE, one round trip per chunk, so the number
+	 * of queries doesn't grow with the number of children. Projects are returned in the
+	 * order of the IDs passed in; IDs that don't exist are skipped.
+	 */
+	public List<Project> fetchProjectsByIds(Collection<Integer> projectIds) {
+		List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(projectIds));
+		ids.removeIf(Objects::isNull);
 		
-		try(ResultSet rs = stmt.executeQuery()) {
-			List<Material> materials = new LinkedList<>();
-			while (rs.next()) {
-				materials.add(extract(rs, Material.class));
+		if(ids.isEmpty()) {
+			return new LinkedList<>();
+		}
+		
+		try(Connection conn = DbConnection.getConnection()) {
+			startTransaction(conn);
+			
+			try {
+				Map<Integer, Project> projects = new HashMap<>();
+				
+				for(int from = 0; from < ids.size(); from += FETCH_CHUNK_SIZE) {
+					int to = Math.min(from + FETCH_CHUNK_SIZE, ids.size());
+					projects.putAll(fetchProjectGraphs(conn, ids.subList(from, to)));
+				}
+				
+				commitTransaction(conn);
+				
+				List<Project> result = new ArrayList<>(projects.size());
+				
+				for(Integer projectId : ids) {
+					if(projects.containsKey(projectId)) {
+						result.add(projects.get(projectId));
+					}
 				}
-				return materials;
+				
+				return result;
+				
+			} catch (Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
 			}
+		} catch(SQLException e) {
+			throw new DbException(e);
 		}
 	}
 
-/*
- * Method to return the steps associated with the project id passed in.
- * Transaction is started by the calling method fetchProjectById()
- */
-private List<Step> fetchStepsForProject(Connection conn,
-	Integer projectId) throws SQLException {
-		String sql = "SELECT * FROM " + STEP_TABLE + " WHERE project_id = ?";
+	/*
+	 * Loads the projects with the given IDs together with their materials, steps and categories.
+	 * The four SELECTs are sent as one multi-statement request (the connection URL enables
+	 * allowMultiQueries), so this is a single round trip to the DB. The result sets come back
+	 * in the order of the statements and are assembled into the project graphs in one pass.
+	 * Projects that don't exist are simply missing from the returned map.
+	 */
+	private Map<Integer, Project> fetchProjectGraphs(Connection conn,
+			List<Integer> projectIds) throws SQLException {
+		int size = graphSize(projectIds.size());
+		String sql = GRAPH_SQL.computeIfAbsent(size, ProjectDao::graphSql);
+		
+		Map<Integer, Project> projects = new LinkedHashMap<>();
 		
 		try(PreparedStatement stmt = conn.prepareStatement(sql)) {
-			setParameter(stmt, 1, projectId, Integer.class);
+			int index = 1;
 			
-			try(ResultSet rs = stmt.executeQuery()) {
-				List<Step> steps = new LinkedList<>();
-				while (rs.next()) {
-					steps.add(extract(rs, Step.class));
+			Integer lastId = projectIds.get(projectIds.size() - 1);
+			
+			/*
+			 * Every statement in the request has its own IN list to bind. Unused placeholders
+			 * at the end of a list repeat the last ID, which doesn't change the result.
+			 */
+			for(int statement = 0; statement < 4; statement++) {
+				for(int i = 0; i < size; i++) {
+					Integer projectId = i < projectIds.size() ? projectIds.get(i) : lastId;
+					setParameter(stmt, index++, projectId, Integer.class);
+				}
+			}
+			
+			stmt.execute();
+			
+			try(ResultSet rs = stmt.getResultSet()) {
+				RowMapper<Project> mapper = rowMapper(rs, Project.class);
+				
+				while(rs.next()) {
+					Project project = mapper.map();
+					projects.put(project.getProjectId(), project);
+				}
+			}
+			
+			stmt.getMoreResults();
+			
+			try(ResultSet rs = stmt.getResultSet()) {
+				RowMapper<Material> mapper = rowMapper(rs, Material.class);
+				
+				while(rs.next()) {
+					Material material = mapper.map();
+					projects.get(material.getProjectId()).getMaterials().add(material);
+				}
+			}
+			
+			stmt.getMoreResults();
+			
+			try(ResultSet rs = stmt.getResultSet()) {
+				RowMapper<Step> mapper = rowMapper(rs, Step.class);
+				
+				while(rs.next()) {
+					Step step = mapper.map();
+					projects.get(step.getProjectId()).getSteps().add(step);
+				}
+			}
+			
+			stmt.getMoreResults();
+			
+			try(ResultSet rs = stmt.getResultSet()) {
+				RowMapper<Category> mapper = rowMapper(rs, Category.class);
+				
+				while(rs.next()) {
+					// Category has no project ID of its own. It is the first column of the join.
+					Project project = projects.get(rs.getInt(1));
+					project.getCategories().add(mapper.map());
 				}
-				return steps;
 			}
 		}
+		
+		return projects;
 	}
 
-/*
- * Method that returns all categories tied to the project ID passed in.
- * Join since the category table and project table have a many-to-many relationship.
- * Transaction is started by the calling method fetchProjectById()
- */
-private List<Category> fetchCategoriesForProject(Connection conn,
-		Integer projectId) throws SQLException {
-	// @formatter:off
-	String sql = ""
-			+ "SELECT c.* FROM " + CATEGORY_TABLE + " c "
-			+ "JOIN " + PROJECT_CATEGORY_TABLE + " pc USING (category_id) "
-			+ "WHERE project_id = ?";
-	// @formatter:on
-	
-	try(PreparedStatement stmt = conn.prepareStatement(sql)) {
-		setParameter(stmt, 1, projectId, Integer.class);
+	/*
+	 * Rounds the number of IDs in a graph load up to a power of two (at most FETCH_CHUNK_SIZE),
+	 * so only a handful of distinct statements are ever prepared and they stay in the cache.
+	 */
+	private static int graphSize(int idCount) {
+		if(idCount <= 1) {
+			return 1;
+		}
 		
-		try(ResultSet rs = stmt.executeQuery()) {
-			List<Category> categories = new LinkedList<>();
-			while (rs.next()) {
-				categories.add(extract(rs, Category.class));
-			}
-			return categories;
+		return Math.min(Integer.highestOneBit(idCount - 1) << 1, FETCH_CHUNK_SIZE);
+	}
+
+	/*
+	 * Builds the four-statement graph load for IN lists of the given size.
+	 */
+	private static String graphSql(int size) {
+		String in = inClause(size);
+		
+		// @formatter:off
+		return ""
+				+ "SELECT " + PROJECT_COLUMNS + " FROM " + PROJECT_TABLE
+				+ " WHERE project_id IN " + in + ";"
+				+ "SELECT " + MATERIAL_COLUMNS + " FROM " + MATERIAL_TABLE
+				+ " WHERE project_id IN " + in + " ORDER BY project_id, material_id;"
+				+ "SELECT " + STEP_COLUMNS + " FROM " + STEP_TABLE
+				+ " WHERE project_id IN " + in + " ORDER BY project_id, step_order, step_id;"
+				+ "SELECT pc.project_id, c.category_id, c.category_name FROM " + CATEGORY_TABLE + " c "
+				+ "JOIN " + PROJECT_CATEGORY_TABLE + " pc USING (category_id) "
+				+ "WHERE pc.project_id IN " + in;
+		// @formatter:on
+	}
+
+	/*
+	 * Builds a parameter list "(?, ?, ?)" with the given number of placeholders.
+	 */
+	private static String inClause(int size) {
+		StringBuilder in = new StringBuilder(size * 3 + 1).append('(');
+		
+		for(int i = 0; i < size; i++) {
+			in.append(i == 0 ? "?" : ", ?");
 		}
+		
+		return in.append(')').toString();
+	}
+
+	/*
+	 * Builds a keyset page query. The keyed form starts after a given (name, ID) position.
+	 */
+	private static String pageSql(String columns, boolean keyed) {
+		// @formatter:off
+		return "SELECT " + columns + " FROM " + PROJECT_TABLE
+				+ (keyed ? " WHERE project_name > ? OR (project_name = ? AND project_id > ?)" : "")
+				+ " ORDER BY project_name, project_id LIMIT ?";
+		// @formatter:on
 	}
-}
 
 /*
  *  Method returns all projects in the projects table.
  *  Doesn't include materials, steps, or categories.
  */
 public List<Project> fetchAllProjects() {
-	String sql = "SELECT * FROM " + PROJECT_TABLE + " ORDER BY project_name";
-	
 	try(Connection conn = DbConnection.getConnection()) {
 		startTransaction(conn);
 		
-		try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+		try(PreparedStatement stmt = conn.prepareStatement(FETCH_ALL_PROJECTS_SQL)) {
 			try(ResultSet rs = stmt.executeQuery()) {
 				List<Project> projects = new LinkedList<>();
+				RowMapper<Project> mapper = rowMapper(rs, Project.class);
 				
 				while(rs.next()) {
-					projects.add(extract(rs, Project.class));
+					projects.add(mapper.map());
 				}
 				
 				return projects;
@@ -172,35 +373,310 @@ public List<Project> fetchAllProjects() {
 	}
 }
 	
+	/*
+	 * Method to stream every project in the projects table, ordered by name.
+	 * Doesn't include materials, steps, or categories.
+	 * 
+	 * Rows are read through a MySQL server-side cursor (the connection URL enables
+	 * useCursorFetch) STREAM_FETCH_SIZE rows at a time, so memory use does not depend on
+	 * the size of the table. The stream holds a pooled connection and an open read
+	 * transaction until it is closed, so callers must close it, e.g. with try-with-resources.
+	 */
+	public Stream<Project> streamAllProjects() {
+		Connection conn = DbConnection.getConnection();
+		PreparedStatement stmt = null;
+		ResultSet rs = null;
+		
+		try {
+			startTransaction(conn);
+			stmt = conn.prepareStatement(FETCH_ALL_PROJECTS_SQL, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			stmt.setFetchSize(STREAM_FETCH_SIZE);
+			rs = stmt.executeQuery();
+			
+			ResultSet rows = rs;
+			PreparedStatement cursor = stmt;
+			RowMapper<Project> mapper = rowMapper(rs, Project.class);
+			
+			Spliterator<Project> spliterator = new Spliterators.AbstractSpliterator<>(
+					Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+				@Override
+				public boolean tryAdvance(Consumer<? super Project> action) {
+					try {
+						if(!rows.next()) {
+							return false;
+						}
+						
+						action.accept(mapper.map());
+						return true;
+					} catch(SQLException e) {
+						throw new DbException(e);
+					}
+				}
+			};
+			
+			return StreamSupport.stream(spliterator, false)
+					.onClose(() -> closeStream(conn, cursor, rows));
+			
+		} catch(Exception e) {
+			DbException failure = new DbException(e);
+			
+			try {
+				closeStream(conn, stmt, rs);
+			} catch(DbException closeFailure) {
+				failure.addSuppressed(closeFailure);
+			}
+			
+			throw failure;
+		}
+	}
+	
+	/*
+	 * Visits every project in the projects table, ordered by name, without loading
+	 * them all into memory. The connection is released when the visit finishes.
+	 */
+	public void forEachProject(Consumer<Project> visitor) {
+		try(Stream<Project> projects = streamAllProjects()) {
+			projects.forEach(visitor);
+		}
+	}
+	
+	/*
+	 * Releases everything held by a project stream. Closing the cursor first lets the
+	 * read-only transaction commit before the connection goes back to the pool.
+	 */
+	private void closeStream(Connection conn, Statement stmt, ResultSet rs) {
+		try(conn) {
+			if(Objects.nonNull(rs)) {
+				rs.close();
+			}
+			
+			if(Objects.nonNull(stmt)) {
+				stmt.close();
+			}
+			
+			if(!conn.getAutoCommit()) {
+				commitTransaction(conn);
+			}
+		} catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	/*
+	 * Method to return the ID and name of every project, ordered by name.
+	 * Only the two columns are selected, so the notes are never sent over the wire.
+	 */
+	public List<ProjectSummary> fetchProjectSummaries() {
+		try(Connection conn = DbConnection.getConnection()) {
+			try(PreparedStatement stmt = conn.prepareStatement(FETCH_SUMMARIES_SQL)) {
+				try(ResultSet rs = stmt.executeQuery()) {
+					List<ProjectSummary> summaries = new ArrayList<>();
+					RowMapper<ProjectSummary> mapper = rowMapper(rs, ProjectSummary.class);
+					
+					while(rs.next()) {
+						summaries.add(mapper.map());
+					}
+					
+					return summaries;
+				}
+			}
+		} catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	/*
+	 * Method to return one page of projects ordered by name. Uses keyset pagination on
+	 * (project_name, project_id): each page starts right after the last row of the previous
+	 * page, so the DB never reads and discards the rows of earlier pages the way OFFSET would.
+	 * Pass a null token for the first page. Doesn't include materials, steps, or categories.
+	 */
+	public Page<Project> fetchProjectPage(String pageToken, int pageSize) {
+		return fetchPage(PROJECT_FIRST_PAGE_SQL, PROJECT_NEXT_PAGE_SQL, Project.class,
+				pageToken, pageSize,
+				project -> new PageKey(project.getProjectName(), project.getProjectId()));
+	}
+	
+	/*
+	 * Method to return one page of project IDs and names ordered by name.
+	 * Same paging as fetchProjectPage(), but only the two columns are selected.
+	 */
+	public Page<ProjectSummary> fetchProjectSummaryPage(String pageToken, int pageSize) {
+		return fetchPage(SUMMARY_FIRST_PAGE_SQL, SUMMARY_NEXT_PAGE_SQL, ProjectSummary.class,
+				pageToken, pageSize,
+				summary -> new PageKey(summary.getProjectName(), summary.getProjectId()));
+	}
+	
+	/*
+	 * Reads one keyset page of the project table into the given type.
+	 * keyOf returns the (project_name, project_id) position of a row.
+	 */
+	private <T> Page<T> fetchPage(String firstPageSql, String nextPageSql, Class<T> classType,
+			String pageToken, int pageSize, Function<T, PageKey> keyOf) {
+		int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+		PageKey after = Objects.isNull(pageToken) ? null : PageKey.decode(pageToken);
+		
+		String sql = Objects.isNull(after) ? firstPageSql : nextPageSql;
+		
+		try(Connection conn = DbConnection.getConnection()) {
+			try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+				int index = 1;
+				
+				if(Objects.nonNull(after)) {
+					setParameter(stmt, index++, after.name, String.class);
+					setParameter(stmt, index++, after.name, String.class);
+					setParameter(stmt, index++, after.id, Integer.class);
+				}
+				
+				// One extra row tells us whether there is another page.
+				setParameter(stmt, index, limit + 1, Integer.class);
+				
+				try(ResultSet rs = stmt.executeQuery()) {
+					List<T> items = new ArrayList<>(limit);
+					RowMapper<T> mapper = rowMapper(rs, classType);
+					boolean more = false;
+					
+					while(rs.next()) {
+						if(items.size() == limit) {
+							more = true;
+							break;
+						}
+						
+						items.add(mapper.map());
+					}
+					
+					String nextPageToken = more ? keyOf.apply(items.get(limit - 1)).encode() : null;
+					return new Page<>(items, nextPageToken);
+				}
+			}
+		} catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
 	/*
 	 * Method to insert a row in the project table.
 	 */
 	public Project insertProject(Project project) {
-		// @formatter:off
-		String sql = ""
-				+ "INSERT INTO " + PROJECT_TABLE + " "
-				+ "(project_name, estimated_hours, actual_hours, difficulty, notes) "
-				+ "VALUES "
-				+ "(?, ?, ?, ?, ?)";
-		// @formatter:on
-		
 		try(Connection conn = DbConnection.getConnection()) {
 			startTransaction(conn);
 			
-			try(PreparedStatement stmt = conn.prepareStatement(sql)) {
-				setParameter(stmt, 1, project.getProjectName(), String.class);
-				setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
-				setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
-				setParameter(stmt, 4, project.getDifficulty(), Integer.class);
-				setParameter(stmt, 5, project.getNotes(), String.class);
+			try(PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_SQL,
+					Statement.RETURN_GENERATED_KEYS)) {
+				setProjectParameters(stmt, project);
 				
 				stmt.executeUpdate();
 				
-				Integer projectId = getLastInsertId(conn, PROJECT_TABLE);
+				Integer projectId = getGeneratedKey(stmt);
 				commitTransaction(conn);
 				
 				project.setProjectId(projectId);
+				project.clearChanges();
+				return project;
+			} catch (Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		} catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	/*
+	 * Method to insert many rows in the project table, using the default batch size.
+	 */
+	public List<Project> insertProjects(List<Project> projects) {
+		return insertProjects(projects, DEFAULT_INSERT_BATCH_SIZE);
+	}
+	
+	/*
+	 * Method to insert many rows in the project table with JDBC batches. The connection URL
+	 * enables rewriteBatchedStatements, so each batch goes to MySQL as one multi-row INSERT.
+	 * Every batchSize rows are sent and committed together, and the generated project IDs
+	 * are written back into the Project objects.
+	 * 
+	 * If a batch fails it is rolled back and a DbException is thrown. Batches committed
+	 * before it stay in the DB, and their projects keep their IDs.
+	 */
+	public List<Project> insertProjects(List<Project> projects, int batchSize) {
+		if(batchSize < 1) {
+			throw new DbException("Batch size must be at least 1, not " + batchSize + ".");
+		}
+		
+		try(Connection conn = DbConnection.getConnection()) {
+			startTransaction(conn);
+			
+			try(PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_SQL,
+					Statement.RETURN_GENERATED_KEYS)) {
+				for(int from = 0; from < projects.size(); from += batchSize) {
+					int to = Math.min(from + batchSize, projects.size());
+					List<Project> batch = projects.subList(from, to);
+					
+					for(Project project : batch) {
+						setProjectParameters(stmt, project);
+						stmt.addBatch();
+					}
+					
+					stmt.executeBatch();
+					List<Integer> projectIds = getGeneratedKeys(stmt);
+					
+					if(projectIds.size() != batch.size()) {
+						throw new SQLException("Expected " + batch.size() + " generated keys but got "
+								+ projectIds.size() + ".");
+					}
+					
+					commitTransaction(conn);
+					
+					for(int i = 0; i < batch.size(); i++) {
+						batch.get(i).setProjectId(projectIds.get(i));
+						batch.get(i).clearChanges();
+					}
+				}
+				
+				return projects;
+			} catch (Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		} catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	/*
+	 * Method to insert a project together with its materials, steps and categories in one
+	 * transaction. Materials, steps and project_category links are each sent as a single JDBC
+	 * batch, and categories are matched by name in one query, so the number of round trips
+	 * doesn't depend on how many children the project has:
+	 *   1. insert the project row
+	 *   2. batch insert the materials
+	 *   3. batch insert the steps (each step's order is its position in the list times
+	 *      StepDao.STEP_ORDER_GAP, leaving room to insert steps between them later)
+	 *   4. look up categories without an ID by name, and insert the ones not found
+	 *   5. batch insert the project_category links
+	 * The generated IDs are written back into the project and its children.
+	 */
+	public Project insertProjectGraph(Project project) {
+		try(Connection conn = DbConnection.getConnection()) {
+			startTransaction(conn);
+			
+			try {
+				try(PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_SQL,
+						Statement.RETURN_GENERATED_KEYS)) {
+					setProjectParameters(stmt, project);
+					stmt.executeUpdate();
+					project.setProjectId(getGeneratedKey(stmt));
+				}
+				
+				insertMaterials(conn, project);
+				insertSteps(conn, project);
+				insertCategoryLinks(conn, project.getProjectId(), resolveCategories(conn, project));
+				
+				commitTransaction(conn);
+				project.clearChanges();
 				return project;
+				
 			} catch (Exception e) {
 				rollbackTransaction(conn);
 				throw new DbException(e);
@@ -209,32 +685,204 @@ public List<Project> fetchAllProjects() {
 			throw new DbException(e);
 		}
 	}
+	
+	/*
+	 * Batch inserts the project's materials. Part of insertProjectGraph()'s transaction.
+	 */
+	private void insertMaterials(Connection conn, Project project) throws SQLException {
+		if(project.getMaterials().isEmpty()) {
+			return;
+		}
+		
+		try(PreparedStatement stmt = conn.prepareStatement(INSERT_MATERIAL_SQL,
+				Statement.RETURN_GENERATED_KEYS)) {
+			for(Material material : project.getMaterials()) {
+				material.setProjectId(project.getProjectId());
+				setParameter(stmt, 1, material.getProjectId(), Integer.class);
+				setParameter(stmt, 2, material.getMaterialName(), String.class);
+				setParameter(stmt, 3, material.getNumRequired(), Integer.class);
+				setParameter(stmt, 4, material.getCost(), BigDecimal.class);
+				stmt.addBatch();
+			}
+			
+			stmt.executeBatch();
+			
+			Iterator<Integer> keys = getGeneratedKeys(stmt).iterator();
+			project.getMaterials().forEach(material -> material.setMaterialId(keys.next()));
+		}
+	}
+	
+	/*
+	 * Batch inserts the project's steps. Part of insertProjectGraph()'s transaction.
+	 * The list order is the step order: any stepOrder the caller set is replaced, because
+	 * StepDao relies on orders being positive, distinct and STEP_ORDER_GAP apart to start with.
+	 */
+	private void insertSteps(Connection conn, Project project) throws SQLException {
+		if(project.getSteps().isEmpty()) {
+			return;
+		}
+		
+		if(project.getSteps().size() > Integer.MAX_VALUE / StepDao.STEP_ORDER_GAP) {
+			throw new IllegalArgumentException("A project can have at most "
+					+ Integer.MAX_VALUE / StepDao.STEP_ORDER_GAP + " steps.");
+		}
+		
+		try(PreparedStatement stmt = conn.prepareStatement(INSERT_STEP_SQL,
+				Statement.RETURN_GENERATED_KEYS)) {
+			int position = 1;
+			
+			for(Step step : project.getSteps()) {
+				step.setProjectId(project.getProjectId());
+				
+				step.setStepOrder(position * StepDao.STEP_ORDER_GAP);
+				
+				setParameter(stmt, 1, step.getProjectId(), Integer.class);
+				setParameter(stmt, 2, step.getStepText(), String.class);
+				setParameter(stmt, 3, step.getStepOrder(), Integer.class);
+				stmt.addBatch();
+				position++;
+			}
+			
+			stmt.executeBatch();
+			
+			Iterator<Integer> keys = getGeneratedKeys(stmt).iterator();
+			project.getSteps().forEach(step -> step.setStepId(keys.next()));
+		}
+	}
+	
+	/*
+	 * Gives every category of the project an ID and returns the distinct IDs. Categories
+	 * that already have an ID are used as they are. The rest are looked up by name in one
+	 * query, and the names that aren't found are inserted one at a time, in name order.
+	 * A concurrent insert of the same name can create it between the lookup and the insert;
+	 * the unique key on category_name turns that insert into a no-op that returns the
+	 * existing ID. Part of insertProjectGraph()'s transaction.
+	 */
+	private Set<Integer> resolveCategories(Connection conn, Project project) throws SQLException {
+		// Case-insensitive like the column's collation, so "Wood" finds an existing "wood".
+		Map<String, List<Category>> unresolved = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		
+		for(Category category : project.getCategories()) {
+			if(Objects.isNull(category.getCategoryId())) {
+				unresolved.computeIfAbsent(category.getCategoryName(), name -> new LinkedList<>())
+						.add(category);
+			}
+		}
+		
+		if(!unresolved.isEmpty()) {
+			List<String> names = new ArrayList<>(unresolved.keySet());
+			String sql = "SELECT category_id, category_name FROM " + CATEGORY_TABLE
+					+ " WHERE category_name IN " + inClause(names.size());
+			
+			try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+				for(int i = 0; i < names.size(); i++) {
+					setParameter(stmt, i + 1, names.get(i), String.class);
+				}
+				
+				try(ResultSet rs = stmt.executeQuery()) {
+					RowMapper<Category> mapper = rowMapper(rs, Category.class);
+					
+					while(rs.next()) {
+						Category found = mapper.map();
+						List<Category> matches = unresolved.remove(found.getCategoryName());
+						
+						if(Objects.nonNull(matches)) {
+							matches.forEach(category -> category.setCategoryId(found.getCategoryId()));
+						}
+					}
+				}
+			}
+		}
+		
+		if(!unresolved.isEmpty()) {
+			try(PreparedStatement stmt = conn.prepareStatement(INSERT_CATEGORY_SQL,
+					Statement.RETURN_GENERATED_KEYS)) {
+				/*
+				 * Not a batch: the driver can't report the existing ID for each row of a
+				 * multi-row INSERT ... ON DUPLICATE KEY UPDATE. New category names are rare.
+				 */
+				for(Map.Entry<String, List<Category>> entry : unresolved.entrySet()) {
+					setParameter(stmt, 1, entry.getKey(), String.class);
+					stmt.executeUpdate();
+					
+					Integer categoryId = getGeneratedKey(stmt);
+					entry.getValue().forEach(category -> category.setCategoryId(categoryId));
+				}
+			}
+		}
+		
+		Set<Integer> categoryIds = new LinkedHashSet<>();
+		project.getCategories().forEach(category -> categoryIds.add(category.getCategoryId()));
+		return categoryIds;
+	}
+	
+	/*
+	 * Batch inserts the project_category rows. Part of insertProjectGraph()'s transaction.
+	 */
+	private void insertCategoryLinks(Connection conn, Integer projectId,
+			Set<Integer> categoryIds) throws SQLException {
+		if(categoryIds.isEmpty()) {
+			return;
+		}
+		
+		try(PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_CATEGORY_SQL)) {
+			for(Integer categoryId : categoryIds) {
+				setParameter(stmt, 1, projectId, Integer.class);
+				setParameter(stmt, 2, categoryId, Integer.class);
+				stmt.addBatch();
+			}
+			
+			stmt.executeBatch();
+		}
+	}
+	
+	/*
+	 * Binds the five project columns used by INSERT_PROJECT_SQL, in order.
+	 */
+	private void setProjectParameters(PreparedStatement stmt, Project project) throws SQLException {
+		setParameter(stmt, 1, project.getProjectName(), String.class);
+		setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
+		setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
+		setParameter(stmt, 4, project.getDifficulty(), Integer.class);
+		setParameter(stmt, 5, project.getNotes(), String.class);
+	}
 
+	/*
+	 * Method to write the project columns that have changed since the project was loaded.
+	 * The UPDATE only sets the changed columns, so an unchanged notes TEXT isn't resent.
+	 * If nothing has changed, no UPDATE is sent; the project row is only looked up by ID.
+	 * Returns false if there is no project with the project's ID, whether or not anything
+	 * changed. On success the project is marked clean, so it matches the DB again.
+	 */
 	public boolean modifyProjectDetails(Project project) {
-		// @formatter:off
-		String sql = "UPDATE " + PROJECT_TABLE + " SET "
-				+ "project_name = ?, "
-				+ "estimated_hours = ?, "
-				+ "actual_hours = ?, "
-				+ "difficulty = ?, "
-				+ "notes = ? "
-				+ "WHERE project_id = ?";
-		// @formatter:on
+		List<String> columns = new ArrayList<>(UPDATABLE_COLUMNS);
+		columns.retainAll(project.changedColumns());
+		
+		if(columns.isEmpty()) {
+			return projectExists(project.getProjectId());
+		}
+		
+		String sql = UPDATE_SQL.computeIfAbsent(columns, ProjectDao::updateSql);
 		
 		try(Connection conn = DbConnection.getConnection()) {
 			startTransaction(conn);
 			try(PreparedStatement stmt = conn.prepareStatement(sql)) {
-				setParameter(stmt, 1, project.getProjectName(), String.class);
-				setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
-				setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
-				setParameter(stmt, 4, project.getDifficulty(), Integer.class);
-				setParameter(stmt, 5, project.getNotes(), String.class);
-				// encountered error about not having a 6th stmt. Still need to pass a project ID to the DB, duh.
-				setParameter(stmt, 6, project.getProjectId(), Integer.class);
+				int index = 1;
+				
+				for(String column : columns) {
+					setProjectColumn(stmt, index++, project, column);
+				}
+				
+				// The project ID for the WHERE clause comes after the changed columns.
+				setParameter(stmt, index, project.getProjectId(), Integer.class);
 				
 				boolean updated = stmt.executeUpdate() == 1;
 				commitTransaction(conn);
 				
+				if(updated) {
+					project.clearChanges();
+				}
+				
 				return updated;
 				
 			} catch (Exception e) {
@@ -245,13 +893,64 @@ public List<Project> fetchAllProjects() {
 			throw new DbException(e);
 		}
 	}
+	
+	private boolean projectExists(Integer projectId) {
+		try(Connection conn = DbConnection.getConnection()) {
+			try(PreparedStatement stmt = conn.prepareStatement(PROJECT_EXISTS_SQL)) {
+				setParameter(stmt, 1, projectId, Integer.class);
+				
+				try(ResultSet rs = stmt.executeQuery()) {
+					return rs.next();
+				}
+			}
+		} catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	/*
+	 * Builds an UPDATE of the given project columns, in UPDATABLE_COLUMNS order.
+	 */
+	private static String updateSql(List<String> columns) {
+		StringBuilder sql = new StringBuilder("UPDATE ").append(PROJECT_TABLE).append(" SET ");
+		
+		for(int i = 0; i < columns.size(); i++) {
+			sql.append(i == 0 ? "" : ", ").append(columns.get(i)).append(" = ?");
+		}
+		
+		return sql.append(" WHERE project_id = ?").toString();
+	}
+	
+	/*
+	 * Binds the value of one of the UPDATABLE_COLUMNS.
+	 */
+	private void setProjectColumn(PreparedStatement stmt, int index, Project project,
+			String column) throws SQLException {
+		switch(column) {
+		case "project_name":
+			setParameter(stmt, index, project.getProjectName(), String.class);
+			break;
+		case "estimated_hours":
+			setParameter(stmt, index, project.getEstimatedHours(), BigDecimal.class);
+			break;
+		case "actual_hours":
+			setParameter(stmt, index, project.getActualHours(), BigDecimal.class);
+			break;
+		case "difficulty":
+			setParameter(stmt, index, project.getDifficulty(), Integer.class);
+			break;
+		case "notes":
+			setParameter(stmt, index, project.getNotes(), String.class);
+			break;
+		default:
+			throw new DbException("Unknown project column: " + column);
+		}
+	}
 
 	public boolean deleteProject(Integer projectId) {
-		String sql = "DELETE FROM " + PROJECT_TABLE + " WHERE project_id = ?";
-		
 		try(Connection conn = DbConnection.getConnection()) {
 			startTransaction(conn);
-			try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+			try(PreparedStatement stmt = conn.prepareStatement(DELETE_PROJECT_SQL)) {
 				setParameter(stmt, 1, projectId, Integer.class);
 				
 				boolean updated = stmt.executeUpdate() == 1;
@@ -267,4 +966,38 @@ public List<Project> fetchAllProjects() {
 			throw new DbException(e);
 		}
 	}
+
+	/*
+	 * The position of the last row of a page. Encoded into the opaque page token handed to
+	 * callers as "id:name" in URL-safe Base64.
+	 */
+	private static class PageKey {
+		private final String name;
+		private final Integer id;
+		
+		PageKey(String name, Integer id) {
+			this.name = name;
+			this.id = id;
+		}
+		
+		String encode() {
+			String key = id + ":" + name;
+			return Base64.getUrlEncoder().withoutPadding()
+					.encodeToString(key.getBytes(StandardCharsets.UTF_8));
+		}
+		
+		/*
+		 * A token that encode() didn't produce is a bad argument from the caller, not a
+		 * database failure, so it is reported as an IllegalArgumentException.
+		 */
+		static PageKey decode(String token) {
+			try {
+				String key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+				int colon = key.indexOf(':');
+				return new PageKey(key.substring(colon + 1), Integer.valueOf(key.substring(0, colon)));
+			} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+				throw new IllegalArgumentException("Invalid page token: " + token, e);
+			}
+		}
+	}
 }
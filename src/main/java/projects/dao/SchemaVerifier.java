@@ -0,0 +1,128 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import projects.exception.DbException;
+
+/*
+ * Checks at startup that the indexes the DAO's queries rely on exist, and prints a warning
+ * for each one that is missing. A schema created from an older projects_schema.sql still
+ * works without them, but lookups that should be index range scans become table scans.
+ */
+public class SchemaVerifier {
+	private static final String INDEX_COLUMNS_SQL = ""
+			+ "SELECT table_name, index_name, column_name FROM information_schema.statistics"
+			+ " WHERE table_schema = DATABASE() ORDER BY table_name, index_name, seq_in_index";
+
+	// @formatter:off
+	private static final List<ExpectedIndex> EXPECTED_INDEXES = List.of(
+		new ExpectedIndex("project", false, "project_name"),
+		new ExpectedIndex("category", false, "category_name"),
+		new ExpectedIndex("step", false, "project_id", "step_order"),
+		new ExpectedIndex("project_category", true, "project_id", "category_id"),
+		new ExpectedIndex("project_category", false, "category_id", "project_id")
+	);
+	// @formatter:on
+
+	/*
+	 * Prints a warning for every expected index that is missing. If the check itself fails,
+	 * that is reported too, and the application carries on.
+	 */
+	public static void warnIfIndexesMissing() {
+		try {
+			for (String missing : findMissingIndexes()) {
+				System.out.println("Warning: missing index " + missing
+						+ ". Check that the schema migrations have been applied.");
+			}
+		} catch (DbException e) {
+			System.out.println("Warning: could not check the schema indexes: " + e.getMessage());
+		}
+	}
+
+	/*
+	 * Returns a description of each expected index that is not in the current schema.
+	 */
+	public static List<String> findMissingIndexes() {
+		Map<String, List<String>> indexes = fetchIndexColumns();
+		List<String> missing = new ArrayList<>();
+
+		for (ExpectedIndex expected : EXPECTED_INDEXES) {
+			if (!expected.isSatisfiedBy(indexes)) {
+				missing.add(expected.toString());
+			}
+		}
+
+		return missing;
+	}
+
+	/*
+	 * Returns the columns of every index in the schema, in index order, keyed by
+	 * "table.index". Names are lowercased.
+	 */
+	private static Map<String, List<String>> fetchIndexColumns() {
+		Map<String, List<String>> indexes = new HashMap<>();
+
+		try (Connection conn = DbConnection.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(INDEX_COLUMNS_SQL);
+				ResultSet rs = stmt.executeQuery()) {
+			while (rs.next()) {
+				String key = rs.getString(1).toLowerCase() + "." + rs.getString(2).toLowerCase();
+				indexes.computeIfAbsent(key, k -> new ArrayList<>()).add(rs.getString(3).toLowerCase());
+			}
+		} catch (SQLException e) {
+			throw new DbException(e);
+		}
+
+		return indexes;
+	}
+
+	/*
+	 * An index the DAO needs. Any index whose leading columns are these will do;
+	 * a primary one must be the table's primary key.
+	 */
+	private static class ExpectedIndex {
+		private final String table;
+		private final boolean primary;
+		private final List<String> columns;
+
+		ExpectedIndex(String table, boolean primary, String... columns) {
+			this.table = table;
+			this.primary = primary;
+			this.columns = List.of(columns);
+		}
+
+		boolean isSatisfiedBy(Map<String, List<String>> indexes) {
+			for (Map.Entry<String, List<String>> index : indexes.entrySet()) {
+				String name = index.getKey();
+				List<String> indexColumns = index.getValue();
+
+				if (!name.startsWith(table + ".")) {
+					continue;
+				}
+
+				if (primary && !name.equals(table + ".primary")) {
+					continue;
+				}
+
+				if (indexColumns.size() >= columns.size()
+						&& indexColumns.subList(0, columns.size()).equals(columns)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return (primary ? "PRIMARY KEY " : "") + table + " (" + String.join(", ", columns) + ")";
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package projects.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * An LRU cache of prepared statements for one pooled connection. Because the pool
+ * keeps the physical connection open, a statement prepared by one DAO call can be
+ * reused by the next call that runs the same SQL, and the server doesn't have to
+ * parse and plan it again.
+ *
+ * A cached statement is handed out as a proxy. Closing the proxy clears its
+ * parameters and puts it back in the cache instead of closing it. A statement that
+ * is in use is not in the cache, so two open statements never share a handle.
+ */
+class StatementCache {
+	private final int capacity;
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final LongAdder evictions;
+
+	// Access ordered, so the eldest entry is the least recently used statement.
+	private final Map<String, PreparedStatement> idle = new LinkedHashMap<>(16, 0.75f, true);
+
+	StatementCache(int capacity, LongAdder hits, LongAdder misses, LongAdder evictions) {
+		this.capacity = capacity;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+	}
+
+	/*
+	 * Returns true for the prepareStatement() overloads that can be cached:
+	 * (sql), (sql, autoGeneratedKeys) and (sql, resultSetType, resultSetConcurrency).
+	 */
+	static boolean isCacheable(Method method) {
+		if (!method.getName().equals("prepareStatement")) {
+			return false;
+		}
+
+		Class<?>[] types = method.getParameterTypes();
+
+		for (int i = 1; i < types.length; i++) {
+			if (types[i] != int.class) {
+				return false;
+			}
+		}
+
+		return types.length <= 3;
+	}
+
+	/*
+	 * Returns a cached statement for the call, or prepares a new one on the physical
+	 * connection. The returned proxy reports owner as its connection.
+	 */
+	synchronized PreparedStatement prepare(Connection physical, Connection owner, Method method,
+			Object[] args) throws Throwable {
+		String key = keyOf(args);
+		PreparedStatement stmt = idle.remove(key);
+
+		if (stmt != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+
+			try {
+				stmt = (PreparedStatement)method.invoke(physical, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		return (PreparedStatement)Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, new CachedStatement(key, (String)args[0], stmt, owner));
+	}
+
+	/*
+	 * Puts a statement back once its borrower has closed it. The statement is reset
+	 * first; if that fails it is closed rather than cached.
+	 */
+	private synchronized void checkIn(String key, PreparedStatement stmt) {
+		try {
+			stmt.clearParameters();
+			stmt.clearBatch();
+			stmt.clearWarnings();
+			stmt.setFetchSize(0);
+		} catch (SQLException e) {
+			closeQuietly(stmt);
+			return;
+		}
+
+		PreparedStatement previous = idle.put(key, stmt);
+
+		if (previous != null) {
+			// Another copy of the same SQL was returned first. Keep only one.
+			closeQuietly(previous);
+		}
+
+		if (idle.size() > capacity) {
+			Iterator<PreparedStatement> eldest = idle.values().iterator();
+			closeQuietly(eldest.next());
+			eldest.remove();
+			evictions.increment();
+		}
+	}
+
+	private static String keyOf(Object[] args) {
+		StringBuilder key = new StringBuilder((String)args[0]);
+
+		for (int i = 1; i < args.length; i++) {
+			key.append('\0').append(args[i]);
+		}
+
+		return key.toString();
+	}
+
+	private static void closeQuietly(PreparedStatement stmt) {
+		try {
+			stmt.close();
+		} catch (SQLException e) {
+			// The statement is being discarded anyway.
+		}
+	}
+
+	/*
+	 * Forwards calls to the cached statement, except close() which returns it to the cache.
+	 * Executions are timed for the metrics.
+	 */
+	private class CachedStatement implements InvocationHandler {
+		private final String key;
+		private final String sql;
+		private final PreparedStatement stmt;
+		private final Connection owner;
+		private boolean closed;
+
+		CachedStatement(String key, String sql, PreparedStatement stmt, Connection owner) {
+			this.key = key;
+			this.sql = sql;
+			this.stmt = stmt;
+			this.owner = owner;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!closed) {
+					closed = true;
+					checkIn(key, stmt);
+				}
+				return null;
+			case "isClosed":
+				return closed;
+			case "getConnection":
+				return owner;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Cached " + stmt;
+			default:
+				break;
+			}
+
+			if (closed) {
+				throw new SQLException("Statement has been closed.");
+			}
+
+			return StatementTimer.invoke(stmt, method, args, sql);
+		}
+	}
+}
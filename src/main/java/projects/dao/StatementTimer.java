@@ -0,0 +1,214 @@
+package projects.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Objects;
+
+import projects.metrics.MetricsRegistry;
+
+/*
+ * Times statement executions for the metrics. Cached prepared statements call invoke()
+ * directly; plain statements from createStatement() are wrapped with wrap(). The SQL verb
+ * (select, insert, ...) is used as the metric name, which keeps the number of names small
+ * however many different statements are run.
+ *
+ * Writes report their update count as rows. Result sets (from executeQuery() or
+ * getResultSet()) are wrapped to count the rows the caller reads, and the count is
+ * reported when the result set is closed.
+ */
+class StatementTimer {
+	/*
+	 * Calls the method on the statement. Executions are timed and result sets are wrapped to
+	 * count their rows. sql is the SQL of the statement's last execution, or null if unknown.
+	 */
+	static Object invoke(Object target, Method method, Object[] args, String sql) throws Throwable {
+		if (method.getName().startsWith("execute")) {
+			return time(target, method, args, sql);
+		}
+
+		Object result;
+
+		try {
+			result = method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+
+		// Not getGeneratedKeys(): its rows are the keys of rows already counted as updated.
+		return result instanceof ResultSet && method.getName().equals("getResultSet")
+				? countRows((ResultSet)result, kindOf(sql))
+				: result;
+	}
+
+	/*
+	 * Returns the SQL that an execute call runs: its first argument, if it is a String.
+	 */
+	static String sqlOf(Method method, Object[] args) {
+		return method.getName().startsWith("execute") && Objects.nonNull(args) && args.length > 0
+				&& args[0] instanceof String ? (String)args[0] : null;
+	}
+
+	/*
+	 * Runs the execute method and records its time, its update count and whether it failed.
+	 * sql is the statement's SQL, or null to take it from the first argument.
+	 */
+	private static Object time(Object target, Method method, Object[] args, String sql)
+			throws Throwable {
+		String kind = kindOf(Objects.nonNull(sql) ? sql : sqlOf(method, args));
+		long start = System.nanoTime();
+		Object result = null;
+		boolean failed = true;
+
+		try {
+			result = method.invoke(target, args);
+			failed = false;
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		} finally {
+			MetricsRegistry.get().recordStatement(kind, System.nanoTime() - start, rowsOf(result),
+					failed);
+		}
+
+		return result instanceof ResultSet ? countRows((ResultSet)result, kind) : result;
+	}
+
+	/*
+	 * Wraps a result set so the rows read from it are reported when it is closed.
+	 */
+	private static ResultSet countRows(ResultSet rs, String kind) {
+		return (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+				new Class<?>[] { ResultSet.class }, new CountedResultSet(rs, kind));
+	}
+
+	/*
+	 * Wraps a plain Statement so its executions are timed.
+	 */
+	static Statement wrap(Statement stmt) {
+		return (Statement)Proxy.newProxyInstance(Statement.class.getClassLoader(),
+				new Class<?>[] { Statement.class }, new TimedStatement(stmt));
+	}
+
+	private static String kindOf(String sql) {
+		if (Objects.isNull(sql)) {
+			return "batch";
+		}
+
+		String trimmed = sql.stripLeading();
+		int end = 0;
+
+		while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+			end++;
+		}
+
+		return end == 0 ? "other" : trimmed.substring(0, end).toLowerCase();
+	}
+
+	/*
+	 * The update count of executeUpdate() or the sum of executeBatch(). Queries count as 0
+	 * here; their rows are counted by CountedResultSet.
+	 */
+	private static long rowsOf(Object result) {
+		if (result instanceof Number) {
+			return Math.max(0, ((Number)result).longValue());
+		}
+
+		long rows = 0;
+
+		if (result instanceof int[]) {
+			for (int count : (int[])result) {
+				rows += Math.max(0, count);
+			}
+		} else if (result instanceof long[]) {
+			for (long count : (long[])result) {
+				rows += Math.max(0, count);
+			}
+		}
+
+		return rows;
+	}
+
+	/*
+	 * Forwards calls to the statement, timing the execute methods.
+	 */
+	private static class TimedStatement implements InvocationHandler {
+		private final Statement stmt;
+		// The SQL last executed, which names the metric for a later getResultSet().
+		private String sql;
+
+		TimedStatement(Statement stmt) {
+			this.stmt = stmt;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				break;
+			}
+
+			String executed = sqlOf(method, args);
+
+			if (Objects.nonNull(executed)) {
+				sql = executed;
+			}
+
+			return StatementTimer.invoke(stmt, method, args, sql);
+		}
+	}
+
+	/*
+	 * Forwards calls to the result set, counting the rows next() moves to. The count is
+	 * reported once, on the first close().
+	 */
+	private static class CountedResultSet implements InvocationHandler {
+		private final ResultSet rs;
+		private final String kind;
+		private long rows;
+		private boolean reported;
+
+		CountedResultSet(ResultSet rs, String kind) {
+			this.rs = rs;
+			this.kind = kind;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "close":
+				if (!reported) {
+					reported = true;
+					MetricsRegistry.get().recordRowsReturned(kind, rows);
+				}
+				break;
+			default:
+				break;
+			}
+
+			Object result;
+
+			try {
+				result = method.invoke(rs, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+
+			if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+				rows++;
+			}
+
+			return result;
+		}
+	}
+}
@@ -0,0 +1,394 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import projects.entity.Step;
+import projects.exception.DbException;
+import provided.util.DaoBase;
+
+/*
+ * Keeps a project's steps in order without renumbering them on every change. step_order
+ * values are sparse: appended steps are STEP_ORDER_GAP apart, a step placed between two
+ * others gets the midpoint of their values, and a delete leaves a hole. Only when two
+ * neighbours have no value left between them are the project's steps renumbered, in one
+ * UPDATE. Every lookup is a range read on the (project_id, step_order) index.
+ *
+ * Each operation runs in a transaction that first locks the parent project row
+ * (SELECT ... FOR UPDATE). That serializes changes to one project's steps, so two
+ * concurrent inserts can't pick the same value, while other projects are unaffected.
+ */
+public class StepDao extends DaoBase {
+	// Distance between consecutive step_order values after an append or a renumbering.
+	public static final int STEP_ORDER_GAP = 1024;
+
+	private static final String STEP_TABLE = "step";
+
+	// @formatter:off
+	private static final String LOCK_PROJECT_SQL = ""
+			+ "SELECT project_id FROM project WHERE project_id = ? FOR UPDATE";
+
+	private static final String FETCH_STEP_ORDER_SQL = ""
+			+ "SELECT step_order FROM " + STEP_TABLE + " WHERE project_id = ? AND step_id = ?";
+
+	// The first step after a position, ignoring the step being moved.
+	private static final String FETCH_NEXT_ORDER_SQL = ""
+			+ "SELECT MIN(step_order) FROM " + STEP_TABLE
+			+ " WHERE project_id = ? AND step_order > ? AND step_id <> ?";
+
+	private static final String INSERT_STEP_SQL = ""
+			+ "INSERT INTO " + STEP_TABLE + " (project_id, step_text, step_order) VALUES (?, ?, ?)";
+
+	private static final String UPDATE_STEP_ORDER_SQL = ""
+			+ "UPDATE " + STEP_TABLE + " SET step_order = ? WHERE project_id = ? AND step_id = ?";
+
+	private static final String DELETE_STEP_SQL = ""
+			+ "DELETE FROM " + STEP_TABLE + " WHERE project_id = ? AND step_id = ?";
+
+	private static final String COUNT_STEPS_SQL = ""
+			+ "SELECT COUNT(*) FROM " + STEP_TABLE + " WHERE project_id = ?";
+
+	// Renumbers the project's steps GAP apart, keeping their order, in one statement.
+	private static final String REBALANCE_SQL = ""
+			+ "UPDATE " + STEP_TABLE + " s JOIN ("
+			+ "SELECT step_id, ROW_NUMBER() OVER (ORDER BY step_order, step_id) AS position"
+			+ " FROM " + STEP_TABLE + " WHERE project_id = ?"
+			+ ") r ON r.step_id = s.step_id"
+			+ " SET s.step_order = r.position * " + STEP_ORDER_GAP;
+	// @formatter:on
+
+	/*
+	 * Adds a step after the project's last step. Empty if the project doesn't exist.
+	 */
+	public Optional<Step> appendStep(Integer projectId, String stepText) {
+		try(Connection conn = DbConnection.getConnection()) {
+			startTransaction(conn);
+
+			try {
+				if(!lockProject(conn, projectId)) {
+					rollbackTransaction(conn);
+					return Optional.empty();
+				}
+
+				Integer order = nextOrder(conn, projectId);
+
+				if(Objects.isNull(order)) {
+					rebalance(conn, projectId);
+					order = nextOrder(conn, projectId);
+				}
+
+				Step step = insertStep(conn, projectId, stepText, order);
+				commitTransaction(conn);
+				return Optional.of(step);
+
+			} catch (Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		} catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/*
+	 * Adds a step directly after afterStepId, or before every other step when afterStepId is
+	 * null. Empty if the project, or the step to insert after, doesn't exist.
+	 */
+	public Optional<Step> insertStepAfter(Integer projectId, Integer afterStepId, String stepText) {
+		try(Connection conn = DbConnection.getConnection()) {
+			startTransaction(conn);
+
+			try {
+				Integer order = lockProject(conn, projectId)
+						? orderAfter(conn, projectId, afterStepId, null)
+						: null;
+
+				if(Objects.isNull(order)) {
+					rollbackTransaction(conn);
+					return Optional.empty();
+				}
+
+				Step step = insertStep(conn, projectId, stepText, order);
+				commitTransaction(conn);
+				return Optional.of(step);
+
+			} catch (Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		} catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/*
+	 * Moves a step to directly after afterStepId, or to the front when afterStepId is null.
+	 * Only the moved step's row is written, unless the project has to be renumbered.
+	 * Returns false if the project or either step doesn't exist.
+	 */
+	public boolean moveStep(Integer projectId, Integer stepId, Integer afterStepId) {
+		if(Objects.equals(stepId, afterStepId)) {
+			throw new DbException("A step can't be moved after itself.");
+		}
+
+		try(Connection conn = DbConnection.getConnection()) {
+			startTransaction(conn);
+
+			try {
+				Integer order = lockProject(conn, projectId)
+						&& Objects.nonNull(fetchOrder(conn, projectId, stepId))
+						? orderAfter(conn, projectId, afterStepId, stepId)
+						: null;
+
+				if(Objects.isNull(order)) {
+					rollbackTransaction(conn);
+					return false;
+				}
+
+				try(PreparedStatement stmt = conn.prepareStatement(UPDATE_STEP_ORDER_SQL)) {
+					setParameter(stmt, 1, order, Integer.class);
+					setParameter(stmt, 2, projectId, Integer.class);
+					setParameter(stmt, 3, stepId, Integer.class);
+					stmt.executeUpdate();
+				}
+
+				commitTransaction(conn);
+				return true;
+
+			} catch (Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		} catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/*
+	 * Deletes a step. The other steps keep their values; the hole is reused by later inserts.
+	 */
+	public boolean deleteStep(Integer projectId, Integer stepId) {
+		try(Connection conn = DbConnection.getConnection()) {
+			startTransaction(conn);
+
+			try(PreparedStatement stmt = conn.prepareStatement(DELETE_STEP_SQL)) {
+				setParameter(stmt, 1, projectId, Integer.class);
+				setParameter(stmt, 2, stepId, Integer.class);
+
+				boolean deleted = stmt.executeUpdate() == 1;
+				commitTransaction(conn);
+
+				return deleted;
+
+			} catch (Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		} catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/*
+	 * Puts the project's steps in the given order with one UPDATE ... CASE statement. The list
+	 * must hold every step of the project exactly once. Returns false if the project doesn't exist.
+	 */
+	public boolean reorderSteps(Integer projectId, List<Integer> stepIds) {
+		if(new HashSet<>(stepIds).size() != stepIds.size()) {
+			throw new DbException("A step can only appear once in the new order.");
+		}
+
+		try(Connection conn = DbConnection.getConnection()) {
+			startTransaction(conn);
+
+			try {
+				if(!lockProject(conn, projectId)) {
+					rollbackTransaction(conn);
+					return false;
+				}
+
+				if(countSteps(conn, projectId) != stepIds.size()) {
+					throw new DbException("The new order must list every step of project "
+							+ projectId + ".");
+				}
+
+				if(!stepIds.isEmpty()) {
+					try(PreparedStatement stmt = conn.prepareStatement(reorderSql(stepIds.size()))) {
+						int index = 1;
+
+						for(int i = 0; i < stepIds.size(); i++) {
+							setParameter(stmt, index++, stepIds.get(i), Integer.class);
+							setParameter(stmt, index++, (i + 1) * STEP_ORDER_GAP, Integer.class);
+						}
+
+						setParameter(stmt, index++, projectId, Integer.class);
+
+						for(Integer stepId : stepIds) {
+							setParameter(stmt, index++, stepId, Integer.class);
+						}
+
+						if(stmt.executeUpdate() != stepIds.size()) {
+							throw new DbException("The new order lists steps that are not in project "
+									+ projectId + ".");
+						}
+					}
+				}
+
+				commitTransaction(conn);
+				return true;
+
+			} catch (Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		} catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/*
+	 * UPDATE step SET step_order = CASE step_id WHEN ? THEN ? ... END
+	 *   WHERE project_id = ? AND step_id IN (?, ...)
+	 */
+	private static String reorderSql(int count) {
+		StringBuilder sql = new StringBuilder("UPDATE ").append(STEP_TABLE)
+				.append(" SET step_order = CASE step_id");
+
+		for(int i = 0; i < count; i++) {
+			sql.append(" WHEN ? THEN ?");
+		}
+
+		sql.append(" END WHERE project_id = ? AND step_id IN (");
+
+		for(int i = 0; i < count; i++) {
+			sql.append(i == 0 ? "?" : ", ?");
+		}
+
+		return sql.append(")").toString();
+	}
+
+	/*
+	 * Locks the project row until the transaction ends. Returns false if there is no such project.
+	 */
+	private boolean lockProject(Connection conn, Integer projectId) throws SQLException {
+		try(PreparedStatement stmt = conn.prepareStatement(LOCK_PROJECT_SQL)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+
+			try(ResultSet rs = stmt.executeQuery()) {
+				return rs.next();
+			}
+		}
+	}
+
+	private Integer nextOrder(Connection conn, Integer projectId) throws SQLException {
+		return getNextSequenceNumber(conn, projectId, STEP_TABLE, "project_id", "step_order",
+				STEP_ORDER_GAP);
+	}
+
+	/*
+	 * Returns the order value for a step placed directly after afterStepId (or first, when it is
+	 * null), ignoring movingStepId. Renumbers the project's steps if there is no room there.
+	 * Returns null if afterStepId isn't a step of the project.
+	 */
+	private Integer orderAfter(Connection conn, Integer projectId, Integer afterStepId,
+			Integer movingStepId) throws SQLException {
+		for(int attempt = 0; attempt < 2; attempt++) {
+			Integer previous = 0;
+
+			if(Objects.nonNull(afterStepId)) {
+				previous = fetchOrder(conn, projectId, afterStepId);
+
+				if(Objects.isNull(previous)) {
+					return null;
+				}
+			}
+
+			Integer next = fetchNextOrder(conn, projectId, previous, movingStepId);
+
+			// Longs, so values near Integer.MAX_VALUE can't overflow.
+			long order = Objects.isNull(next)
+					? (long)previous + STEP_ORDER_GAP
+					: ((long)previous + next) / 2;
+
+			if(order > previous && order <= Integer.MAX_VALUE
+					&& (Objects.isNull(next) || order < next)) {
+				return (int)order;
+			}
+
+			rebalance(conn, projectId);
+		}
+
+		throw new DbException("No room for a step after step " + afterStepId + ".");
+	}
+
+	private Integer fetchOrder(Connection conn, Integer projectId, Integer stepId)
+			throws SQLException {
+		try(PreparedStatement stmt = conn.prepareStatement(FETCH_STEP_ORDER_SQL)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+			setParameter(stmt, 2, stepId, Integer.class);
+
+			try(ResultSet rs = stmt.executeQuery()) {
+				return rs.next() ? rs.getInt(1) : null;
+			}
+		}
+	}
+
+	private Integer fetchNextOrder(Connection conn, Integer projectId, Integer order,
+			Integer movingStepId) throws SQLException {
+		try(PreparedStatement stmt = conn.prepareStatement(FETCH_NEXT_ORDER_SQL)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+			setParameter(stmt, 2, order, Integer.class);
+			// Step IDs start at 1, so 0 excludes nothing.
+			setParameter(stmt, 3, Objects.isNull(movingStepId) ? 0 : movingStepId, Integer.class);
+
+			try(ResultSet rs = stmt.executeQuery()) {
+				rs.next();
+				int next = rs.getInt(1);
+				return rs.wasNull() ? null : next;
+			}
+		}
+	}
+
+	private int countSteps(Connection conn, Integer projectId) throws SQLException {
+		try(PreparedStatement stmt = conn.prepareStatement(COUNT_STEPS_SQL)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+
+			try(ResultSet rs = stmt.executeQuery()) {
+				rs.next();
+				return rs.getInt(1);
+			}
+		}
+	}
+
+	private void rebalance(Connection conn, Integer projectId) throws SQLException {
+		try(PreparedStatement stmt = conn.prepareStatement(REBALANCE_SQL)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+			stmt.executeUpdate();
+		}
+	}
+
+	private Step insertStep(Connection conn, Integer projectId, String stepText, Integer order)
+			throws SQLException {
+		try(PreparedStatement stmt = conn.prepareStatement(INSERT_STEP_SQL,
+				Statement.RETURN_GENERATED_KEYS)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+			setParameter(stmt, 2, stepText, String.class);
+			setParameter(stmt, 3, order, Integer.class);
+			stmt.executeUpdate();
+
+			Step step = new Step();
+			step.setStepId(getGeneratedKey(stmt));
+			step.setProjectId(projectId);
+			step.setStepText(stepText);
+			step.setStepOrder(order);
+			return step;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One page of a keyset-paginated listing. The next page token is opaque to callers; pass it back
+ * unchanged to get the following page. It is null on the last page.
+ * 
+ * @author Promineo
+ *
+ * @param <T> The type of item on the page.
+ */
+public class Page<T> {
+  private final List<T> items;
+  private final String nextPageToken;
+
+  public Page(List<T> items, String nextPageToken) {
+    this.items = items;
+    this.nextPageToken = nextPageToken;
+  }
+
+  public List<T> getItems() {
+    return items;
+  }
+
+  public String getNextPageToken() {
+    return nextPageToken;
+  }
+
+  public boolean hasNext() {
+    return Objects.nonNull(nextPageToken);
+  }
+
+  @Override
+  public String toString() {
+    return "items=" + items.size() + ", nextPageToken=" + nextPageToken;
+  }
+}
@@ -3,9 +3,15 @@
  */
 package projects.entity;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * @author Promineo
@@ -23,6 +29,12 @@ public class Project {
   private List<Step> steps = new LinkedList<>();
   private List<Category> categories = new LinkedList<>();
 
+  /*
+   * Columns whose values have been changed through a setter since the project was loaded or last
+   * saved. Projects read from the DB start out clean because extract assigns the fields directly.
+   */
+  private transient Set<String> changedColumns = new LinkedHashSet<>();
+
   public Integer getProjectId() {
     return projectId;
   }
@@ -36,6 +48,7 @@ public class Project {
   }
 
   public void setProjectName(String projectName) {
+    trackChange("project_name", this.projectName, projectName);
     this.projectName = projectName;
   }
 
@@ -44,6 +57,7 @@ public class Project {
   }
 
   public void setEstimatedHours(BigDecimal estimatedHours) {
+    trackChange("estimated_hours", this.estimatedHours, estimatedHours);
     this.estimatedHours = estimatedHours;
   }
 
@@ -52,6 +66,7 @@ public class Project {
   }
 
   public void setActualHours(BigDecimal actualHours) {
+    trackChange("actual_hours", this.actualHours, actualHours);
     this.actualHours = actualHours;
   }
 
@@ -60,6 +75,7 @@ public class Project {
   }
 
   public void setDifficulty(Integer difficulty) {
+    trackChange("difficulty", this.difficulty, difficulty);
     this.difficulty = difficulty;
   }
 
@@ -68,6 +84,7 @@ public class Project {
   }
 
   public void setNotes(String notes) {
+    trackChange("notes", this.notes, notes);
     this.notes = notes;
   }
 
@@ -83,35 +100,137 @@ public class Project {
     return categories;
   }
 
-  @Override
-  public String toString() {
-    String result = "";
-    
-    result += "\n   ID=" + projectId;
-    result += "\n   name=" + projectName;
-    result += "\n   estimatedHours=" + estimatedHours;
-    result += "\n   actualHours=" + actualHours;
-    result += "\n   difficulty=" + difficulty;
-    result += "\n   notes=" + notes;
-    
-    result += "\n   Materials:";
-    
+  /**
+   * Returns the names of the columns changed since the project was loaded or last saved, in the
+   * order they were first changed.
+   */
+  public Set<String> changedColumns() {
+    return Collections.unmodifiableSet(changedColumns);
+  }
+
+  /**
+   * Marks the project as matching the DB. Called by the DAO after the changes are saved.
+   */
+  public void clearChanges() {
+    changedColumns.clear();
+  }
+
+  /**
+   * Returns a copy of the project with copies of its materials, steps and categories, so changes
+   * made to one never show in the other. The copy has no changed columns.
+   */
+  public Project copy() {
+    Project copy = new Project();
+
+    copy.projectId = projectId;
+    copy.projectName = projectName;
+    copy.estimatedHours = estimatedHours;
+    copy.actualHours = actualHours;
+    copy.difficulty = difficulty;
+    copy.notes = notes;
+
     for(Material material : materials) {
-      result += "\n      " + material;
+      Material materialCopy = new Material();
+      materialCopy.setMaterialId(material.getMaterialId());
+      materialCopy.setProjectId(material.getProjectId());
+      materialCopy.setMaterialName(material.getMaterialName());
+      materialCopy.setNumRequired(material.getNumRequired());
+      materialCopy.setCost(material.getCost());
+      copy.materials.add(materialCopy);
     }
-    
-    result += "\n   Steps:";
-    
+
     for(Step step : steps) {
-      result += "\n      " + step;
+      Step stepCopy = new Step();
+      stepCopy.setStepId(step.getStepId());
+      stepCopy.setProjectId(step.getProjectId());
+      stepCopy.setStepText(step.getStepText());
+      stepCopy.setStepOrder(step.getStepOrder());
+      copy.steps.add(stepCopy);
     }
-    
-    result += "\n   Categories:";
-    
+
     for(Category category : categories) {
-      result += "\n      " + category;
+      Category categoryCopy = new Category();
+      categoryCopy.setCategoryId(category.getCategoryId());
+      categoryCopy.setCategoryName(category.getCategoryName());
+      copy.categories.add(categoryCopy);
+    }
+
+    return copy;
+  }
+
+  private void trackChange(String column, Object oldValue, Object newValue) {
+    boolean same;
+
+    if(oldValue instanceof BigDecimal && newValue instanceof BigDecimal) {
+      /* 12.5 and 12.50 are the same value in a DECIMAL column. */
+      same = ((BigDecimal)oldValue).compareTo((BigDecimal)newValue) == 0;
+    }
+    else {
+      same = Objects.equals(oldValue, newValue);
+    }
+
+    if(!same) {
+      changedColumns.add(column);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return toString(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Renders the project like {@link #toString()}, but lists at most maxChildren materials, steps
+   * and categories, followed by a count of the ones left out.
+   */
+  public String toString(int maxChildren) {
+    StringBuilder result = new StringBuilder(256);
+
+    try {
+      appendTo(result, maxChildren);
+    }
+    catch(IOException e) {
+      /* A StringBuilder never throws. */
+      throw new UncheckedIOException(e);
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Appends the rendered project to out in a single pass, so the cost is linear in the number of
+   * children shown. At most maxChildren entries of each child list are written.
+   */
+  public <A extends Appendable> A appendTo(A out, int maxChildren) throws IOException {
+    out.append("\n   ID=").append(String.valueOf(projectId));
+    out.append("\n   name=").append(projectName);
+    out.append("\n   estimatedHours=").append(String.valueOf(estimatedHours));
+    out.append("\n   actualHours=").append(String.valueOf(actualHours));
+    out.append("\n   difficulty=").append(String.valueOf(difficulty));
+    out.append("\n   notes=").append(notes);
+
+    appendChildren(out, "\n   Materials:", materials, maxChildren);
+    appendChildren(out, "\n   Steps:", steps, maxChildren);
+    appendChildren(out, "\n   Categories:", categories, maxChildren);
+
+    return out;
+  }
+
+  private static void appendChildren(Appendable out, String heading, List<?> children,
+      int maxChildren) throws IOException {
+    out.append(heading);
+
+    int shown = 0;
+
+    for(Object child : children) {
+      if(shown == maxChildren) {
+        out.append("\n      ... ").append(String.valueOf(children.size() - shown))
+            .append(" more");
+        break;
+      }
+
+      out.append("\n      ").append(String.valueOf(child));
+      shown++;
     }
-    
-    return result;
   }
 }
@@ -0,0 +1,36 @@
+/**
+ * 
+ */
+package projects.entity;
+
+/**
+ * The ID and name of a project, for listings that don't need the rest of the project.
+ * 
+ * @author Promineo
+ *
+ */
+public class ProjectSummary {
+  private Integer projectId;
+  private String projectName;
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + projectId + ", projectName=" + projectName;
+  }
+}
@@ -0,0 +1,278 @@
+package projects.json;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Page;
+import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+
+/*
+ * Writes projects as JSON straight to a Writer or OutputStream. Property names are
+ * constants, strings are escaped while they are copied out, and integers are
+ * formatted into a reused buffer, so no intermediate strings or trees are built.
+ * The output uses the same property names as the entity getters.
+ *
+ * Used for HTTP responses and for exports; a whole table can be written from
+ * ProjectService.streamAllProjects() with writeProjects().
+ */
+public class ProjectJsonWriter implements Flushable {
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final Writer out;
+	private final char[] digits = new char[11];
+
+	public ProjectJsonWriter(Writer out) {
+		this.out = out;
+	}
+
+	/*
+	 * Writes UTF-8 to the stream through an 8K buffer. Call flush() when done.
+	 */
+	public ProjectJsonWriter(OutputStream out) {
+		this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+	}
+
+	/*
+	 * Writes a project with its materials, steps and categories.
+	 */
+	public void writeProject(Project project) throws IOException {
+		out.write("{\"projectId\":");
+		writeInteger(project.getProjectId());
+		out.write(",\"projectName\":");
+		writeString(project.getProjectName());
+		out.write(",\"estimatedHours\":");
+		writeDecimal(project.getEstimatedHours());
+		out.write(",\"actualHours\":");
+		writeDecimal(project.getActualHours());
+		out.write(",\"difficulty\":");
+		writeInteger(project.getDifficulty());
+		out.write(",\"notes\":");
+		writeString(project.getNotes());
+
+		out.write(",\"materials\":[");
+		boolean firstMaterial = true;
+		for (Material material : project.getMaterials()) {
+			if (!firstMaterial) {
+				out.write(',');
+			}
+			writeMaterial(material);
+			firstMaterial = false;
+		}
+
+		out.write("],\"steps\":[");
+		boolean firstStep = true;
+		for (Step step : project.getSteps()) {
+			if (!firstStep) {
+				out.write(',');
+			}
+			writeStep(step);
+			firstStep = false;
+		}
+
+		out.write("],\"categories\":[");
+		boolean firstCategory = true;
+		for (Category category : project.getCategories()) {
+			if (!firstCategory) {
+				out.write(',');
+			}
+			writeCategory(category);
+			firstCategory = false;
+		}
+
+		out.write("]}");
+	}
+
+	/*
+	 * Writes the projects as a JSON array, pulling them from the iterator one at a time.
+	 */
+	public void writeProjects(Iterator<Project> projects) throws IOException {
+		out.write('[');
+
+		for (boolean first = true; projects.hasNext(); first = false) {
+			if (!first) {
+				out.write(',');
+			}
+			writeProject(projects.next());
+		}
+
+		out.write(']');
+	}
+
+	public void writeMaterial(Material material) throws IOException {
+		out.write("{\"materialId\":");
+		writeInteger(material.getMaterialId());
+		out.write(",\"projectId\":");
+		writeInteger(material.getProjectId());
+		out.write(",\"materialName\":");
+		writeString(material.getMaterialName());
+		out.write(",\"numRequired\":");
+		writeInteger(material.getNumRequired());
+		out.write(",\"cost\":");
+		writeDecimal(material.getCost());
+		out.write('}');
+	}
+
+	public void writeStep(Step step) throws IOException {
+		out.write("{\"stepId\":");
+		writeInteger(step.getStepId());
+		out.write(",\"projectId\":");
+		writeInteger(step.getProjectId());
+		out.write(",\"stepText\":");
+		writeString(step.getStepText());
+		out.write(",\"stepOrder\":");
+		writeInteger(step.getStepOrder());
+		out.write('}');
+	}
+
+	public void writeCategory(Category category) throws IOException {
+		out.write("{\"categoryId\":");
+		writeInteger(category.getCategoryId());
+		out.write(",\"categoryName\":");
+		writeString(category.getCategoryName());
+		out.write('}');
+	}
+
+	public void writeSummary(ProjectSummary summary) throws IOException {
+		out.write("{\"projectId\":");
+		writeInteger(summary.getProjectId());
+		out.write(",\"projectName\":");
+		writeString(summary.getProjectName());
+		out.write('}');
+	}
+
+	/*
+	 * Writes a page of summaries as {"items":[...],"nextPageToken":...}.
+	 */
+	public void writeSummaryPage(Page<ProjectSummary> page) throws IOException {
+		out.write("{\"items\":[");
+		boolean first = true;
+		for (ProjectSummary summary : page.getItems()) {
+			if (!first) {
+				out.write(',');
+			}
+			writeSummary(summary);
+			first = false;
+		}
+
+		out.write("],\"nextPageToken\":");
+		writeString(page.getNextPageToken());
+		out.write('}');
+	}
+
+	/*
+	 * Writes {"error": message}.
+	 */
+	public void writeError(String message) throws IOException {
+		out.write("{\"error\":");
+		writeString(message);
+		out.write('}');
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/*
+	 * Writes an int without creating a String, filling the digit buffer from the right.
+	 */
+	private void writeInteger(Integer value) throws IOException {
+		if (Objects.isNull(value)) {
+			out.write("null");
+			return;
+		}
+
+		int n = value;
+
+		if (n == Integer.MIN_VALUE) {
+			out.write("-2147483648");
+			return;
+		}
+
+		boolean negative = n < 0;
+		int pos = digits.length;
+
+		if (negative) {
+			n = -n;
+		}
+
+		do {
+			digits[--pos] = (char)('0' + n % 10);
+			n /= 10;
+		} while (n != 0);
+
+		if (negative) {
+			digits[--pos] = '-';
+		}
+
+		out.write(digits, pos, digits.length - pos);
+	}
+
+	private void writeDecimal(BigDecimal value) throws IOException {
+		out.write(Objects.isNull(value) ? "null" : value.toPlainString());
+	}
+
+	/*
+	 * Writes a quoted, escaped string. Runs of characters that need no escaping are
+	 * copied straight from the source string.
+	 */
+	private void writeString(String value) throws IOException {
+		if (Objects.isNull(value)) {
+			out.write("null");
+			return;
+		}
+
+		out.write('"');
+
+		int start = 0;
+		int length = value.length();
+
+		for (int i = 0; i < length; i++) {
+			char ch = value.charAt(i);
+
+			if (ch >= 0x20 && ch != '"' && ch != '\\') {
+				continue;
+			}
+
+			out.write(value, start, i - start);
+			start = i + 1;
+
+			switch (ch) {
+			case '"':
+				out.write("\\\"");
+				break;
+			case '\\':
+				out.write("\\\\");
+				break;
+			case '\n':
+				out.write("\\n");
+				break;
+			case '\r':
+				out.write("\\r");
+				break;
+			case '\t':
+				out.write("\\t");
+				break;
+			default:
+				out.write("\\u00");
+				out.write(HEX[ch >> 4]);
+				out.write(HEX[ch & 0xF]);
+			}
+		}
+
+		out.write(value, start, length - start);
+		out.write('"');
+	}
+}
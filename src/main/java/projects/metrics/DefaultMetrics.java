@@ -0,0 +1,110 @@
+package projects.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/*
+ * Keeps a Timer per DAO operation, per statement kind and for connection borrowing, and
+ * registers each one with the platform MBean server when it is first used, so they can
+ * be watched in JConsole or VisualVM. writeText() gives the same values as plain text
+ * for the server's /metrics endpoint.
+ */
+public class DefaultMetrics implements Metrics {
+	private static final String OPERATION = "DaoOperation";
+	private static final String STATEMENT = "Statement";
+	private static final String CONNECTION = "Connection";
+
+	private static final String[] QUANTILES = { "0.5", "0.9", "0.99", "0.999" };
+
+	private final Map<String, Map<String, Timer>> groups = new ConcurrentHashMap<>();
+
+	@Override
+	public void recordOperation(String operation, long nanos, long rows, boolean failed) {
+		timer(OPERATION, operation).record(nanos, rows, failed);
+	}
+
+	@Override
+	public void recordStatement(String kind, long nanos, long rows, boolean failed) {
+		timer(STATEMENT, kind).record(nanos, rows, failed);
+	}
+
+	@Override
+	public void recordRowsReturned(String kind, long rows) {
+		timer(STATEMENT, kind).addRows(rows);
+	}
+
+	@Override
+	public void recordConnectionAcquire(long nanos, boolean failed) {
+		timer(CONNECTION, "acquire").record(nanos, 0, failed);
+	}
+
+	/*
+	 * Writes, for each timer:
+	 *   projects_<group>_count{name="..."} n
+	 *   projects_<group>_errors{name="..."} n
+	 *   projects_<group>_rows{name="..."} n
+	 *   projects_<group>_seconds{name="...",quantile="0.5"} s   (also 0.9, 0.99, 0.999 and max)
+	 */
+	@Override
+	public void writeText(Appendable out) throws IOException {
+		// Sorted by group then name, so the output is stable.
+		for (Map.Entry<String, Map<String, Timer>> group : new TreeMap<>(groups).entrySet()) {
+			String prefix = "projects_" + group.getKey().toLowerCase() + "_";
+
+			for (Map.Entry<String, Timer> entry : new TreeMap<>(group.getValue()).entrySet()) {
+				String label = "name=\"" + entry.getKey() + "\"";
+				Timer timer = entry.getValue();
+				LatencyHistogram latency = timer.latency();
+
+				line(out, prefix + "count{" + label + "}", Long.toString(timer.getCount()));
+				line(out, prefix + "errors{" + label + "}", Long.toString(timer.getErrors()));
+				line(out, prefix + "rows{" + label + "}", Long.toString(timer.getRows()));
+
+				for (String quantile : QUANTILES) {
+					double percentile = Double.parseDouble(quantile) * 100;
+					line(out, prefix + "seconds{" + label + ",quantile=\"" + quantile + "\"}",
+							Double.toString(latency.getPercentile(percentile) / 1e9));
+				}
+
+				line(out, prefix + "seconds{" + label + ",quantile=\"max\"}",
+						Double.toString(latency.getMax() / 1e9));
+			}
+		}
+	}
+
+	private static void line(Appendable out, String name, String value) throws IOException {
+		out.append(name).append(' ').append(value).append('\n');
+	}
+
+	private Timer timer(String group, String name) {
+		Map<String, Timer> timers = groups.computeIfAbsent(group, g -> new ConcurrentHashMap<>());
+		Timer timer = timers.get(name);
+
+		if (timer != null) {
+			return timer;
+		}
+
+		return timers.computeIfAbsent(name, n -> register(group, n, new Timer()));
+	}
+
+	/*
+	 * Publishes the timer over JMX. Metrics still work if that fails, e.g. when the name is
+	 * already taken by another instance in the same JVM.
+	 */
+	private static Timer register(String group, String name, Timer timer) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(timer,
+					new ObjectName("projects:type=" + group + ",name=" + ObjectName.quote(name)));
+		} catch (JMException e) {
+			// Not visible in JMX, but still recorded and in the text output.
+		}
+
+		return timer;
+	}
+}
@@ -0,0 +1,101 @@
+package projects.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * A lock-free histogram of nanosecond latencies with about 12% precision. Values below 16
+ * get a bucket each; above that every power of two is split into 8 buckets, so the whole
+ * range of a long fits in under 500 counters and recording is a few arithmetic operations
+ * and one atomic increment.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+	private static final int LINEAR_BITS = SUB_BUCKET_BITS + 1;
+	private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - LINEAR_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+
+		buckets.incrementAndGet(bucketOf(value));
+		count.increment();
+		total.add(value);
+		max.accumulateAndGet(value, Math::max);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double)total.sum() / n;
+	}
+
+	/*
+	 * Returns the value at the percentile (0 to 100): the upper bound of the bucket holding it,
+	 * capped at the largest value recorded.
+	 */
+	public long getPercentile(double percentile) {
+		long n = 0;
+		long[] counts = new long[BUCKET_COUNT];
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = buckets.get(i);
+			n += counts[i];
+		}
+
+		if (n == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long)Math.ceil(percentile / 100 * n));
+		long seen = 0;
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += counts[i];
+
+			if (seen >= rank) {
+				return Math.min(upperBoundOf(i), max.get());
+			}
+		}
+
+		return max.get();
+	}
+
+	private static int bucketOf(long value) {
+		if (value < LINEAR_LIMIT) {
+			return (int)value;
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+		return LINEAR_LIMIT + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long upperBoundOf(int bucket) {
+		if (bucket < LINEAR_LIMIT) {
+			return bucket;
+		}
+
+		int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + LINEAR_BITS;
+		long subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+
+		// Buckets at the very top of the range would overflow; they are capped by max anyway.
+		return exponent >= 62 ? Long.MAX_VALUE : ((SUB_BUCKETS + subBucket) * width) + width - 1;
+	}
+}
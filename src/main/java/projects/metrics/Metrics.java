@@ -0,0 +1,64 @@
+package projects.metrics;
+
+import java.io.IOException;
+
+/*
+ * Receives timings from the data layer: each DAO operation, each statement execution and
+ * each connection borrowed from the pool. Implementations must be thread safe and cheap,
+ * since they are called on every query. The one in use is held by MetricsRegistry.
+ */
+public interface Metrics {
+	/*
+	 * Discards everything. Install it with MetricsRegistry.set() to turn metrics off.
+	 */
+	Metrics NONE = new Metrics() {
+		@Override
+		public void recordOperation(String operation, long nanos, long rows, boolean failed) {
+		}
+
+		@Override
+		public void recordStatement(String kind, long nanos, long rows, boolean failed) {
+		}
+
+		@Override
+		public void recordRowsReturned(String kind, long rows) {
+		}
+
+		@Override
+		public void recordConnectionAcquire(long nanos, boolean failed) {
+		}
+
+		@Override
+		public void writeText(Appendable out) {
+		}
+	};
+
+	/*
+	 * A DAO operation such as fetchProjectById. rows is the number of rows it returned
+	 * or changed, or 0 when that isn't known.
+	 */
+	void recordOperation(String operation, long nanos, long rows, boolean failed);
+
+	/*
+	 * One statement execution. kind is the SQL verb in lower case (select, insert, ...).
+	 * rows is the update count for writes, or 0 for queries, whose rows are counted as
+	 * they are read and reported with recordRowsReturned().
+	 */
+	void recordStatement(String kind, long nanos, long rows, boolean failed);
+
+	/*
+	 * The number of rows read from one result set of a statement of the given kind,
+	 * reported when the result set is closed.
+	 */
+	void recordRowsReturned(String kind, long rows);
+
+	/*
+	 * Time taken to borrow a connection from the pool, including any wait for one to be returned.
+	 */
+	void recordConnectionAcquire(long nanos, boolean failed);
+
+	/*
+	 * Writes the current values as plain text, one "name{labels} value" line per value.
+	 */
+	void writeText(Appendable out) throws IOException;
+}
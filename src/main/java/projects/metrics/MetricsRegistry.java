@@ -0,0 +1,20 @@
+package projects.metrics;
+
+import java.util.Objects;
+
+/*
+ * Holds the Metrics implementation the data layer reports to. Defaults to DefaultMetrics,
+ * which keeps histograms in memory and publishes them over JMX. Another implementation,
+ * e.g. one that forwards to a monitoring system, can be installed at startup.
+ */
+public class MetricsRegistry {
+	private static volatile Metrics metrics = new DefaultMetrics();
+
+	public static Metrics get() {
+		return metrics;
+	}
+
+	public static void set(Metrics metrics) {
+		MetricsRegistry.metrics = Objects.requireNonNull(metrics);
+	}
+}
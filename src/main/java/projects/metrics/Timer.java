@@ -0,0 +1,78 @@
+package projects.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Count, errors, rows and a latency histogram for one operation, statement kind or the
+ * connection pool.
+ */
+class Timer implements TimerMXBean {
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+
+	void record(long nanos, long rowCount, boolean failed) {
+		latency.record(nanos);
+
+		if (rowCount > 0) {
+			rows.add(rowCount);
+		}
+
+		if (failed) {
+			errors.increment();
+		}
+	}
+
+	/*
+	 * Adds rows found after the call was recorded, such as the rows read from a query's result.
+	 */
+	void addRows(long rowCount) {
+		if (rowCount > 0) {
+			rows.add(rowCount);
+		}
+	}
+
+	LatencyHistogram latency() {
+		return latency;
+	}
+
+	@Override
+	public long getCount() {
+		return latency.getCount();
+	}
+
+	@Override
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	@Override
+	public long getRows() {
+		return rows.sum();
+	}
+
+	@Override
+	public double getMeanMillis() {
+		return latency.getMean() / 1e6;
+	}
+
+	@Override
+	public double getP50Millis() {
+		return latency.getPercentile(50) / 1e6;
+	}
+
+	@Override
+	public double getP95Millis() {
+		return latency.getPercentile(95) / 1e6;
+	}
+
+	@Override
+	public double getP99Millis() {
+		return latency.getPercentile(99) / 1e6;
+	}
+
+	@Override
+	public double getMaxMillis() {
+		return latency.getMax() / 1e6;
+	}
+}
@@ -0,0 +1,23 @@
+package projects.metrics;
+
+/*
+ * JMX view of one timer, registered as projects:type=<group>,name=<name>.
+ * Latencies are in milliseconds.
+ */
+public interface TimerMXBean {
+	long getCount();
+
+	long getErrors();
+
+	long getRows();
+
+	double getMeanMillis();
+
+	double getP50Millis();
+
+	double getP95Millis();
+
+	double getP99Millis();
+
+	double getMaxMillis();
+}
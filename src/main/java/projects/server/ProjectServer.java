@@ -0,0 +1,362 @@
+package projects.server;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import projects.dao.ConnectionPool;
+import projects.dao.DbConnection;
+import projects.dao.MigrationRunner;
+import projects.dao.SchemaVerifier;
+import projects.entity.Page;
+import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.exception.DbException;
+import projects.json.ProjectJsonWriter;
+import projects.metrics.MetricsRegistry;
+import projects.service.ProjectService;
+
+/*
+ * Headless server mode. Exposes the ProjectService operations as a JSON API on the
+ * JDK's built-in HttpServer, bound to localhost only. Request bodies are read with
+ * Jackson; responses are streamed with ProjectJsonWriter.
+ *
+ *   GET    /projects?pageToken=&pageSize=   one page of project IDs and names
+ *   GET    /projects/{id}                   a project with its materials, steps and categories
+ *   POST   /projects                        create a project (and any children in the body)
+ *   PUT    /projects/{id}                   update the project details present in the body
+ *   DELETE /projects/{id}                   delete a project
+ *   GET    /metrics                         DAO, statement and connection metrics as plain text
+ *
+ * Each request runs on its own thread: a virtual thread when the JVM has them (Java 21+),
+ * otherwise a pooled platform thread. Concurrency at the DB is bounded by the connection
+ * pool behind ProjectService; requests beyond its size wait for a connection.
+ */
+public class ProjectServer {
+	private static final int DEFAULT_PORT = 8080;
+	private static final int DEFAULT_PAGE_SIZE = 20;
+	private static final String JSON = "application/json; charset=utf-8";
+
+	private final ProjectService projectService = new ProjectService();
+	private final ObjectMapper mapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	private final HttpServer server;
+	private final ExecutorService executor;
+
+	/*
+	 * Starts the server. The port can be passed as the only argument.
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		MigrationRunner.migrateAtStartup();
+		SchemaVerifier.warnIfIndexesMissing();
+
+		ProjectServer projectServer = new ProjectServer(port);
+
+		Runtime.getRuntime().addShutdownHook(new Thread(projectServer::stop));
+		projectServer.start();
+		System.out.println("Serving projects on http://localhost:" + projectServer.getPort()
+				+ "/projects");
+	}
+
+	public ProjectServer(int port) throws IOException {
+		InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+
+		server = HttpServer.create(address, 0);
+		executor = newRequestExecutor();
+		server.setExecutor(executor);
+		server.createContext("/projects", this::handle);
+		server.createContext("/metrics", this::handleMetrics);
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/*
+	 * Stops accepting requests, lets running ones finish for up to a second and closes the pool.
+	 */
+	public void stop() {
+		server.stop(1);
+		executor.shutdown();
+		DbConnection.shutdown();
+	}
+
+	/*
+	 * A thread per request. Uses Executors.newVirtualThreadPerTaskExecutor() when running on a
+	 * JVM that has it; the lookup is reflective so the code still builds for Java 11.
+	 */
+	private static ExecutorService newRequestExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService)factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/*
+	 * Routes a request to the matching operation and turns exceptions into error responses.
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String method = exchange.getRequestMethod();
+			String path = exchange.getRequestURI().getPath();
+			String idPart = path.replaceFirst("^/projects/?", "");
+			Integer projectId = idPart.isEmpty() ? null : parseId(idPart);
+
+			if (Objects.isNull(projectId)) {
+				switch (method) {
+				case "GET":
+					listProjects(exchange);
+					return;
+				case "POST":
+					createProject(exchange);
+					return;
+				default:
+					sendError(exchange, 405, method + " is not allowed on " + path);
+					return;
+				}
+			}
+
+			switch (method) {
+			case "GET":
+				Project project = projectService.fetchProjectById(projectId);
+				sendJson(exchange, 200, json -> json.writeProject(project));
+				return;
+			case "PUT":
+				updateProject(exchange, projectId);
+				return;
+			case "DELETE":
+				projectService.deleteProject(projectId);
+				exchange.sendResponseHeaders(204, -1);
+				return;
+			default:
+				sendError(exchange, 405, method + " is not allowed on " + path);
+			}
+		} catch (NoSuchElementException e) {
+			sendError(exchange, 404, e.getMessage());
+		} catch (IllegalArgumentException | IOException e) {
+			sendError(exchange, 400, e.getMessage());
+		} catch (DbException e) {
+			sendError(exchange, 500, e.getMessage());
+		} catch (RuntimeException e) {
+			sendError(exchange, 500, e.toString());
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/*
+	 * Writes the current metrics (see DefaultMetrics.writeText) and the statement cache counters.
+	 */
+	private void handleMetrics(HttpExchange exchange) throws IOException {
+		try {
+			if (!exchange.getRequestMethod().equals("GET")) {
+				sendError(exchange, 405, exchange.getRequestMethod() + " is not allowed on /metrics");
+				return;
+			}
+
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+			exchange.sendResponseHeaders(200, 0);
+
+			try (Writer out = new BufferedWriter(
+					new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+				ConnectionPool pool = DbConnection.getPool();
+
+				MetricsRegistry.get().writeText(out);
+				out.write("projects_statement_cache_hits " + pool.getStatementCacheHits() + "\n");
+				out.write("projects_statement_cache_misses " + pool.getStatementCacheMisses() + "\n");
+				out.write("projects_statement_cache_evictions " + pool.getStatementCacheEvictions()
+						+ "\n");
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void listProjects(HttpExchange exchange) throws IOException {
+		Map<String, String> query = parseQuery(exchange.getRequestURI());
+		String pageSize = query.get("pageSize");
+		int size = Objects.isNull(pageSize) ? DEFAULT_PAGE_SIZE : Integer.parseInt(pageSize);
+
+		Page<ProjectSummary> page =
+				projectService.fetchProjectSummaryPage(query.get("pageToken"), size);
+		sendJson(exchange, 200, json -> json.writeSummaryPage(page));
+	}
+
+	/*
+	 * Creates the project in the body. Materials, steps and categories in the body are
+	 * inserted with it in the same transaction.
+	 */
+	private void createProject(HttpExchange exchange) throws IOException {
+		Project project;
+
+		try (InputStream body = exchange.getRequestBody()) {
+			project = mapper.readValue(body, Project.class);
+		}
+
+		if (Objects.isNull(project) || Objects.isNull(project.getProjectName())) {
+			throw new IllegalArgumentException("A project needs a projectName.");
+		}
+
+		project.setProjectId(null);
+		projectService.addProjectGraph(project);
+
+		exchange.getResponseHeaders().set("Location", "/projects/" + project.getProjectId());
+		sendJson(exchange, 201, json -> json.writeProject(project));
+	}
+
+	/*
+	 * Updates the details given in the body. Fields that are missing or null keep their
+	 * current value, like blank input in the menu app. Only changed columns are written.
+	 */
+	private void updateProject(HttpExchange exchange, Integer projectId) throws IOException {
+		JsonNode body;
+
+		try (InputStream in = exchange.getRequestBody()) {
+			body = mapper.readTree(in);
+		}
+
+		if (Objects.isNull(body) || !body.isObject()) {
+			throw new IllegalArgumentException("The request body must be a JSON object.");
+		}
+
+		// A fresh Project, so only the fields present in the body are marked as changed.
+		Project project = new Project();
+		project.setProjectId(projectId);
+
+		if (hasValue(body, "projectName")) {
+			project.setProjectName(body.get("projectName").asText());
+		}
+		if (hasValue(body, "estimatedHours")) {
+			project.setEstimatedHours(numberField(body, "estimatedHours").decimalValue());
+		}
+		if (hasValue(body, "actualHours")) {
+			project.setActualHours(numberField(body, "actualHours").decimalValue());
+		}
+		if (hasValue(body, "difficulty")) {
+			JsonNode difficulty = numberField(body, "difficulty");
+
+			if (!difficulty.isIntegralNumber() || !difficulty.canConvertToInt()) {
+				throw new IllegalArgumentException("difficulty must be a whole number.");
+			}
+			project.setDifficulty(difficulty.asInt());
+		}
+		if (hasValue(body, "notes")) {
+			project.setNotes(body.get("notes").asText());
+		}
+
+		if (!project.changedColumns().isEmpty()) {
+			projectService.modifyProjectDetails(project);
+		}
+
+		Project updated = projectService.fetchProjectById(projectId);
+		sendJson(exchange, 200, json -> json.writeProject(updated));
+	}
+
+	private static boolean hasValue(JsonNode body, String field) {
+		return body.has(field) && !body.get(field).isNull();
+	}
+
+	/*
+	 * Returns the field if it is a JSON number. Jackson's decimalValue() and asInt() turn
+	 * anything else, such as "hard", into 0, which would be written as if it were sent.
+	 */
+	private static JsonNode numberField(JsonNode body, String field) {
+		JsonNode value = body.get(field);
+
+		if (!value.isNumber()) {
+			throw new IllegalArgumentException(field + " must be a number.");
+		}
+
+		return value;
+	}
+
+	/*
+	 * Streams a JSON response. The body is written straight to the connection (chunked),
+	 * so no byte array of the whole response is built first.
+	 */
+	private void sendJson(HttpExchange exchange, int status, JsonBody body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", JSON);
+		exchange.sendResponseHeaders(status, 0);
+
+		ProjectJsonWriter json = new ProjectJsonWriter(exchange.getResponseBody());
+		body.writeTo(json);
+		json.flush();
+	}
+
+	/*
+	 * Sends an error as {"error": message}. If the response was already under way there is
+	 * nothing more to send, and the exchange is just closed.
+	 */
+	private void sendError(HttpExchange exchange, int status, String message) {
+		String error = Objects.isNull(message) ? "Unexpected error" : message;
+
+		try {
+			sendJson(exchange, status, json -> json.writeError(error));
+		} catch (IOException e) {
+			// The client has gone away or the headers were already sent.
+		}
+	}
+
+	/*
+	 * Writes a response body with the JSON writer.
+	 */
+	@FunctionalInterface
+	private interface JsonBody {
+		void writeTo(ProjectJsonWriter json) throws IOException;
+	}
+
+	private static Integer parseId(String idPart) {
+		try {
+			return Integer.valueOf(idPart);
+		} catch (NumberFormatException e) {
+			throw new NoSuchElementException("No resource at /projects/" + idPart);
+		}
+	}
+
+	private static Map<String, String> parseQuery(URI uri) {
+		Map<String, String> query = new HashMap<>();
+		String raw = uri.getRawQuery();
+
+		if (Objects.isNull(raw)) {
+			return query;
+		}
+
+		for (String pair : raw.split("&")) {
+			int equals = pair.indexOf('=');
+
+			if (equals > 0) {
+				query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+						URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+			}
+		}
+
+		return query;
+	}
+}
@@ -0,0 +1,65 @@
+package projects.service;
+
+/*
+ * A snapshot of the project cache counters, returned by ProjectService.getCacheStats().
+ */
+public class CacheStats {
+	private final int size;
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long expirations;
+	private final long loads;
+	private final long loadNanos;
+
+	CacheStats(int size, long hits, long misses, long evictions, long expirations, long loads,
+			long loadNanos) {
+		this.size = size;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.expirations = expirations;
+		this.loads = loads;
+		this.loadNanos = loadNanos;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public double getHitRate() {
+		long requests = hits + misses;
+		return requests == 0 ? 0 : (double)hits / requests;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public long getExpirations() {
+		return expirations;
+	}
+
+	public long getLoads() {
+		return loads;
+	}
+
+	public double getAverageLoadMillis() {
+		return loads == 0 ? 0 : loadNanos / 1_000_000.0 / loads;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("size=%d, hits=%d, misses=%d, hitRate=%.2f, evictions=%d, "
+				+ "expirations=%d, loads=%d, averageLoadMillis=%.2f", size, hits, misses,
+				getHitRate(), evictions, expirations, loads, getAverageLoadMillis());
+	}
+}
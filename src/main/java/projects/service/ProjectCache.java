@@ -0,0 +1,132 @@
+package projects.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.function.Function;
+
+import projects.entity.Project;
+
+/*
+ * In-process cache of full project graphs, keyed by project ID. Holds at most maxSize
+ * projects and evicts the least recently used one when full. Entries expire ttlMillis
+ * after they were loaded, so changes made by other processes show up eventually.
+ *
+ * The cache is read-through: get() calls the loader on a miss and stores what it
+ * returns. Projects that don't exist are not cached. Every caller gets its own copy
+ * of the cached project, so a caller editing its project before saving it can't
+ * change what other callers see. Writes must go through the service, which
+ * invalidates them.
+ */
+class ProjectCache {
+	private final int maxSize;
+	private final long ttlMillis;
+
+	// Access ordered, so the eldest entry is the least recently used project.
+	private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	// Bumped by every invalidation, so a load that raced with a write isn't cached.
+	private long generation;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long expirations;
+	private long loads;
+	private long loadNanos;
+
+	ProjectCache(int maxSize, long ttlMillis) {
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+	}
+
+	/*
+	 * Returns a copy of the cached project, or loads it with the loader and caches it.
+	 * The loader runs outside the lock so a slow load doesn't block other lookups.
+	 * The loaded project may be shared by coalesced loads, so it is copied too.
+	 */
+	Optional<Project> get(Integer projectId, Function<Integer, Optional<Project>> loader) {
+		long loadGeneration;
+
+		synchronized (this) {
+			Project cached = lookup(projectId);
+
+			if (cached != null) {
+				return Optional.of(cached.copy());
+			}
+
+			loadGeneration = generation;
+		}
+
+		long start = System.nanoTime();
+		Optional<Project> loaded = loader.apply(projectId);
+		long elapsed = System.nanoTime() - start;
+
+		synchronized (this) {
+			loads++;
+			loadNanos += elapsed;
+
+			if (loaded.isPresent() && loadGeneration == generation) {
+				put(projectId, loaded.get());
+			}
+		}
+
+		return loaded.map(Project::copy);
+	}
+
+	private Project lookup(Integer projectId) {
+		Entry entry = entries.get(projectId);
+
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+
+		if (entry.isExpired()) {
+			entries.remove(projectId);
+			expirations++;
+			misses++;
+			return null;
+		}
+
+		hits++;
+		return entry.project;
+	}
+
+	synchronized void put(Integer projectId, Project project) {
+		entries.put(projectId, new Entry(project, System.currentTimeMillis() + ttlMillis));
+
+		if (entries.size() > maxSize) {
+			Iterator<Entry> eldest = entries.values().iterator();
+			eldest.next();
+			eldest.remove();
+			evictions++;
+		}
+	}
+
+	synchronized void invalidate(Integer projectId) {
+		generation++;
+		entries.remove(projectId);
+	}
+
+	synchronized CacheStats stats() {
+		return new CacheStats(entries.size(), hits, misses, evictions, expirations, loads, loadNanos);
+	}
+
+	/*
+	 * A cached project and the time at which it stops being served.
+	 */
+	private static class Entry {
+		private final Project project;
+		private final long expiresAt;
+
+		Entry(Project project, long expiresAt) {
+			this.project = project;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() >= expiresAt;
+		}
+	}
+}
@@ -1,49 +1,171 @@
 package projects.service;
 
+import java.util.Collection;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import projects.dao.ProjectDao;
+import projects.dao.StepDao;
+import projects.entity.Page;
 import projects.entity.Project;
-import projects.exception.DbException;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+import projects.metrics.MetricsRegistry;
 
 /*
  * Class to implement service layer. Mostly a pass through layer, for this project,
  *  but is used to help separate and keep code clean. 
  */
 public class ProjectService {
-	private ProjectDao projectDao = new ProjectDao();
+	private ProjectDao projectDao;
+	private StepDao stepDao = new StepDao();
+	
+	// Full project graphs by ID. Size and time-to-live of the cache.
+	private static final int CACHE_MAX_SIZE = 1000;
+	private static final long CACHE_TTL_MILLIS = 5 * 60 * 1000;
+	private ProjectCache projectCache = new ProjectCache(CACHE_MAX_SIZE, CACHE_TTL_MILLIS);
+	
+	// Concurrent loads of the same project, or of the full list, share one DB fetch.
+	private SingleFlight<Integer, Optional<Project>> projectLoads = new SingleFlight<>();
+	private SingleFlight<String, List<Project>> allProjectsLoads = new SingleFlight<>();
+	
+	public ProjectService() {
+		this(new ProjectDao());
+	}
+	
+	/*
+	 * Uses the given DAO, e.g. an in-memory stand-in when load testing the service without MySQL.
+	 */
+	public ProjectService(ProjectDao projectDao) {
+		this.projectDao = projectDao;
+	}
 	
 	
 	 // Call the DAO to add a project row
 	public Project addProject(Project project) {
-		return projectDao.insertProject(project);
+		return measure("insertProject", () -> projectDao.insertProject(project));
 	}
 
 	
+	/*
+	 * Calls the DAO to add many project rows in JDBC batches.
+	 * The generated IDs are set on the projects passed in.
+	 */
+	public List<Project> addProjects(List<Project> projects) {
+		return measure("insertProjects", () -> projectDao.insertProjects(projects));
+	}
+
+	/*
+	 * Calls the DAO to add a project with its materials, steps and categories in one transaction.
+	 * Categories are matched to existing ones by name and created if they don't exist.
+	 */
+	public Project addProjectGraph(Project project) {
+		return measure("insertProjectGraph", () -> projectDao.insertProjectGraph(project));
+	}
+
 	// Calls the DAO to return a list of projects (sans details)
+	// Concurrent callers share one fetch, and each gets its own copy of the list and projects.
 	public List<Project> fetchAllProjects() {
-		return projectDao.fetchAllProjects();
+		List<Project> projects = new LinkedList<>();
+
+		for (Project project : allProjectsLoads.load("all",
+				() -> measure("fetchAllProjects", projectDao::fetchAllProjects))) {
+			projects.add(project.copy());
+		}
+
+		return projects;
+	}
+
+	/*
+	 * Calls the DAO to stream every project (sans details) without loading them all into memory.
+	 * The stream holds a DB connection, so it must be closed (try-with-resources).
+	 */
+	public Stream<Project> streamAllProjects() {
+		return measure("streamAllProjects", projectDao::streamAllProjects);
+	}
+
+	/*
+	 * Calls the DAO to pass every project (sans details) to the visitor, one at a time.
+	 */
+	public void forEachProject(Consumer<Project> visitor) {
+		measure("forEachProject", () -> {
+			long[] visited = new long[1];
+			
+			projectDao.forEachProject(project -> {
+				visited[0]++;
+				visitor.accept(project);
+			});
+			
+			return visited[0];
+		});
+	}
+
+	// Calls the DAO to return the ID and name of every project
+	public List<ProjectSummary> fetchProjectSummaries() {
+		return measure("fetchProjectSummaries", projectDao::fetchProjectSummaries);
+	}
+
+	/*
+	 * Calls the DAO to return one page of project IDs and names, ordered by name.
+	 * Pass null for the first page, then the token from the previous page.
+	 */
+	public Page<ProjectSummary> fetchProjectSummaryPage(String pageToken, int pageSize) {
+		return measure("fetchProjectSummaryPage",
+				() -> projectDao.fetchProjectSummaryPage(pageToken, pageSize));
+	}
+
+	/*
+	 * Calls the DAO to return one page of projects (sans details), ordered by name.
+	 * Pass null for the first page, then the token from the previous page.
+	 */
+	public Page<Project> fetchProjectPage(String pageToken, int pageSize) {
+		return measure("fetchProjectPage",
+				() -> projectDao.fetchProjectPage(pageToken, pageSize));
 	}
 
 	/*
 	 *  Calls to DAO to return project details of the project ID passed through. 
+	 *  Projects are served from the cache when possible and cached after they are loaded.
+	 *  Threads that miss the cache for the same project at the same time share one DB fetch.
+	 *  Every caller gets its own copy, so it may edit the project before saving it.
 	 *  throws exception if invalid ID is passed through.
 	 */
 	public Project fetchProjectById(Integer projectId) {
-		return projectDao.fetchProjectById(projectId)
+		return projectCache.get(projectId,
+				id -> projectLoads.load(id,
+						() -> measure("fetchProjectById", () -> projectDao.fetchProjectById(id))))
 				.orElseThrow( () -> new NoSuchElementException(
 						"Project with project ID=" + projectId + " does not exist."));
 	}
 
 	/*
-	 * Calls the DAO to modify a projects details.
-	 * throws exception if the ID passed through is invalid.
+	 * Calls the DAO to return the full details of several projects at once.
+	 * IDs that don't exist are left out of the returned list.
+	 */
+	public List<Project> fetchProjectsByIds(Collection<Integer> projectIds) {
+		return measure("fetchProjectsByIds", () -> projectDao.fetchProjectsByIds(projectIds));
+	}
+
+	/*
+	 * Calls the DAO to modify a projects details. Only the columns changed through the
+	 * project's setters are written. Afterwards the project passed in matches the DB,
+	 * so callers can keep using it instead of fetching it again.
+	 * Throws NoSuchElementException if no project has the ID, even when nothing has changed.
 	 */
 	public void modifyProjectDetails(Project project) {
-		if(!projectDao.modifyProjectDetails(project)) {
-			throw new DbException("Project with ID=" + project.getProjectId() + " does not exist.");
+		try {
+			if(!measure("modifyProjectDetails", () -> projectDao.modifyProjectDetails(project))) {
+				throw new NoSuchElementException(
+						"Project with ID=" + project.getProjectId() + " does not exist.");
+			}
+		} finally {
+			// The row may have changed even if the call failed part way, so drop it either way.
+			invalidate(project.getProjectId());
 		}
 	}
 
@@ -52,10 +174,149 @@ public class ProjectService {
 	 * Throws exception if invalid ID is passed through.
 	 */
 	public void deleteProject(Integer projectId) {
-		if (!projectDao.deleteProject(projectId)) {
-			throw new DbException("Project with ID=" + projectId + " does not exist.");
+		try {
+			if (!measure("deleteProject", () -> projectDao.deleteProject(projectId))) {
+				throw new NoSuchElementException("Project with ID=" + projectId + " does not exist.");
+			}
+		} finally {
+			invalidate(projectId);
 		}
+	}
+
+	/*
+	 * Adds a step after the project's last step.
+	 * Throws exception if the project doesn't exist.
+	 */
+	public Step addStep(Integer projectId, String stepText) {
+		try {
+			return measure("appendStep", () -> stepDao.appendStep(projectId, stepText))
+					.orElseThrow(() -> new NoSuchElementException(
+							"Project with ID=" + projectId + " does not exist."));
+		} finally {
+			invalidate(projectId);
+		}
+	}
+
+	/*
+	 * Adds a step directly after another step, or first when afterStepId is null.
+	 * Throws exception if the project or the other step doesn't exist.
+	 */
+	public Step insertStepAfter(Integer projectId, Integer afterStepId, String stepText) {
+		try {
+			return measure("insertStepAfter",
+					() -> stepDao.insertStepAfter(projectId, afterStepId, stepText))
+					.orElseThrow(() -> new NoSuchElementException("Project with ID=" + projectId
+							+ " or its step with ID=" + afterStepId + " does not exist."));
+		} finally {
+			invalidate(projectId);
+		}
+	}
+
+	/*
+	 * Moves a step to directly after another step, or to the front when afterStepId is null.
+	 * Throws exception if the project or either step doesn't exist.
+	 */
+	public void moveStep(Integer projectId, Integer stepId, Integer afterStepId) {
+		try {
+			if (!measure("moveStep", () -> stepDao.moveStep(projectId, stepId, afterStepId))) {
+				throw new NoSuchElementException("Project with ID=" + projectId
+						+ " or its steps with IDs " + stepId + " and " + afterStepId + " do not exist.");
+			}
+		} finally {
+			invalidate(projectId);
+		}
+	}
+
+	/*
+	 * Deletes a step. Throws exception if the project has no such step.
+	 */
+	public void deleteStep(Integer projectId, Integer stepId) {
+		try {
+			if (!measure("deleteStep", () -> stepDao.deleteStep(projectId, stepId))) {
+				throw new NoSuchElementException("Project with ID=" + projectId
+						+ " has no step with ID=" + stepId + ".");
+			}
+		} finally {
+			invalidate(projectId);
+		}
+	}
+
+	/*
+	 * Puts all of the project's steps in the given order in one statement.
+	 * Throws exception if the project doesn't exist.
+	 */
+	public void reorderSteps(Integer projectId, List<Integer> stepIds) {
+		try {
+			if (!measure("reorderSteps", () -> stepDao.reorderSteps(projectId, stepIds))) {
+				throw new NoSuchElementException("Project with ID=" + projectId + " does not exist.");
+			}
+		} finally {
+			invalidate(projectId);
+		}
+	}
+
+	/*
+	 * Runs a DAO call and reports its time, the number of rows it returned or changed, and
+	 * whether it failed to the metrics. Cache hits never get here, so these are DB timings.
+	 */
+	private static <T> T measure(String operation, Supplier<T> call) {
+		long start = System.nanoTime();
+		T result = null;
+		boolean failed = true;
 		
-		
+		try {
+			result = call.get();
+			failed = false;
+			return result;
+		} finally {
+			MetricsRegistry.get().recordOperation(operation, System.nanoTime() - start,
+					rowsOf(result), failed);
+		}
+	}
+	
+	private static long rowsOf(Object result) {
+		if (result instanceof Collection) {
+			return ((Collection<?>)result).size();
+		}
+		if (result instanceof Page) {
+			return ((Page<?>)result).getItems().size();
+		}
+		if (result instanceof Optional) {
+			return ((Optional<?>)result).isPresent() ? 1 : 0;
+		}
+		if (result instanceof Boolean) {
+			return (Boolean)result ? 1 : 0;
+		}
+		if (result instanceof Number) {
+			return ((Number)result).longValue();
+		}
+		// A single entity counts as one row; a stream is counted by whoever reads it.
+		return result instanceof Project || result instanceof Step ? 1 : 0;
+	}
+	
+	/*
+	 * Drops the cached project and detaches any load of it that started before the write.
+	 */
+	private void invalidate(Integer projectId) {
+		projectCache.invalidate(projectId);
+		projectLoads.forget(projectId);
+		allProjectsLoads.forget("all");
+	}
+
+	// Number of project loads that went to the DB.
+	public long getIssuedLoads() {
+		return projectLoads.getIssued() + allProjectsLoads.getIssued();
+	}
+
+	// Number of project loads that were served by another thread's in-flight DB fetch.
+	public long getCoalescedLoads() {
+		return projectLoads.getCoalesced() + allProjectsLoads.getCoalesced();
+	}
+
+	/*
+	 * Returns the project cache counters: hit rate, evictions and load times.
+	 */
+	public CacheStats getCacheStats() {
+		return projectCache.stats();
 	}
 }
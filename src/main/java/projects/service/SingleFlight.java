@@ -0,0 +1,79 @@
+package projects.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*
+ * Coalesces concurrent loads of the same key. The first caller for a key runs the
+ * loader; callers that arrive while it is running wait for it and get the same
+ * result (or the same exception) instead of running their own load. Once the load
+ * finishes the key is forgotten, so the next caller starts a fresh load.
+ */
+class SingleFlight<K, V> {
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder issued = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+
+	V load(K key, Supplier<V> loader) {
+		CompletableFuture<V> mine = new CompletableFuture<>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+
+		if (running != null) {
+			coalesced.increment();
+			return await(running);
+		}
+
+		issued.increment();
+
+		try {
+			V value = loader.get();
+			mine.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, mine);
+		}
+	}
+
+	/*
+	 * Detaches the load running for the key, if any. Callers arriving afterwards start a new
+	 * load instead of waiting for one that may have read data from before a write.
+	 */
+	void forget(K key) {
+		inFlight.remove(key);
+	}
+
+	// Number of loads that actually ran.
+	long getIssued() {
+		return issued.sum();
+	}
+
+	// Number of callers that shared another caller's load.
+	long getCoalesced() {
+		return coalesced.sum();
+	}
+
+	private V await(CompletableFuture<V> running) {
+		try {
+			return running.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			}
+
+			if (cause instanceof Error) {
+				throw (Error)cause;
+			}
+
+			throw e;
+		}
+	}
+}
@@ -3,19 +3,16 @@
  */
 package provided.util;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.sql.Time;
-import java.sql.Timestamp;
 import java.sql.Types;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -147,7 +144,10 @@ public abstract class DaoBase {
    * @param idName The name of the parent ID field
    * @return The count of the entities attached to the parent plus one
    * @throws SQLException Thrown if an error occurs.
+   * @deprecated Counting reads every child row, and two concurrent inserts get the same number.
+   *             Use {@link #getNextSequenceNumber(Connection, Integer, String, String, String, int)}.
    */
+  @Deprecated
   protected Integer getNextSequenceNumber(Connection conn, Integer id, String tableName,
       String idName) throws SQLException {
     String sql = "SELECT COUNT(*) FROM " + tableName + " WHERE " + idName + " = ?";
@@ -166,23 +166,93 @@ public abstract class DaoBase {
   }
 
   /**
-   * This returns the integer primary key value of the last row inserted into the given table. It
-   * allows the ID to be inserted into the entity object after inserting it into the table.
+   * This returns the highest order value of the parent's child rows plus the gap, or the gap if the
+   * parent has no children. With an index on (idName, orderName) this reads a single index entry
+   * however many children there are. Leaving a gap between order values lets a row be placed
+   * between two others later without renumbering the rest.
    * 
-   * The other way of doing this is to call {@link Statement#getGeneratedKeys()}, but this returns a
-   * result set that needs to be parsed for the ID. It's not really any easier than this approach
-   * but should be closer to database-agnostic.
+   * The value is only safe from concurrent inserts if the caller holds a lock that serializes
+   * them, such as SELECT ... FOR UPDATE on the parent row in the same transaction.
    * 
    * @param conn The connection
-   * @param table The name of the table on which to get the last inserted primary key value
+   * @param id The ID of the parent entity
+   * @param tableName The name of the table with the child rows
+   * @param idName The name of the parent ID field
+   * @param orderName The name of the order field
+   * @param gap The distance between consecutive order values
+   * @return The order value for a child row appended after the existing ones, or null if it would
+   *         not fit in an int and the existing rows must be renumbered first
+   * @throws SQLException Thrown if an error occurs.
+   */
+  protected Integer getNextSequenceNumber(Connection conn, Integer id, String tableName,
+      String idName, String orderName, int gap) throws SQLException {
+    String sql = "SELECT MAX(" + orderName + ") FROM " + tableName + " WHERE " + idName + " = ?";
+
+    try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+      setParameter(stmt, 1, id, Integer.class);
+
+      try(ResultSet rs = stmt.executeQuery()) {
+        rs.next();
+        long next = rs.getLong(1) + gap;
+
+        return next > Integer.MAX_VALUE ? null : (int)next;
+      }
+    }
+  }
+
+  /**
+   * This returns the integer primary key value generated by the last insert executed with the given
+   * statement. The statement must have been prepared with {@link Statement#RETURN_GENERATED_KEYS}.
+   * The key comes back with the insert response, so no extra query is sent to the database.
+   * 
+   * @param stmt The statement that executed the insert
    * @return The primary key value
+   * @throws SQLException Thrown if an error occurs or no key was generated
+   */
+  protected Integer getGeneratedKey(Statement stmt) throws SQLException {
+    try(ResultSet rs = stmt.getGeneratedKeys()) {
+      if(rs.next()) {
+        return rs.getInt(1);
+      }
+
+      throw new SQLException("Unable to retrieve the primary key value. No generated keys!");
+    }
+  }
+
+  /**
+   * This returns all of the integer primary key values generated by the last execution of the given
+   * statement, in insert order. Use this for multi-row inserts and batches, where one execution
+   * creates many rows. The statement must have been prepared with
+   * {@link Statement#RETURN_GENERATED_KEYS}.
+   * 
+   * @param stmt The statement that executed the insert
+   * @return The primary key values, one per inserted row
    * @throws SQLException Thrown if an error occurs
    */
-  protected Integer getLastInsertId(Connection conn, String table) throws SQLException {
-    String sql = String.format("SELECT LAST_INSERT_ID() FROM %s", table);
+  protected List<Integer> getGeneratedKeys(Statement stmt) throws SQLException {
+    try(ResultSet rs = stmt.getGeneratedKeys()) {
+      List<Integer> keys = new ArrayList<>();
+
+      while(rs.next()) {
+        keys.add(rs.getInt(1));
+      }
+
+      return keys;
+    }
+  }
 
+  /**
+   * This returns the integer primary key value of the last row inserted on this connection. For a
+   * multi-row insert it is the key of the first row. LAST_INSERT_ID() is tracked per connection, so
+   * a single row is selected without touching any table.
+   * 
+   * @param conn The connection
+   * @return The primary key value
+   * @throws SQLException Thrown if an error occurs
+   */
+  protected Integer getLastInsertId(Connection conn) throws SQLException {
     try(Statement stmt = conn.createStatement()) {
-      try(ResultSet rs = stmt.executeQuery(sql)) {
+      try(ResultSet rs = stmt.executeQuery("SELECT LAST_INSERT_ID()")) {
         if(rs.next()) {
           return rs.getInt(1);
         }
@@ -192,6 +262,20 @@ public abstract class DaoBase {
     }
   }
 
+  /**
+   * This returns the integer primary key value of the last row inserted on this connection.
+   * 
+   * @param conn The connection
+   * @param table Not used. LAST_INSERT_ID() does not depend on the table.
+   * @return The primary key value
+   * @throws SQLException Thrown if an error occurs
+   * @deprecated Use {@link #getGeneratedKey(Statement)} or {@link #getLastInsertId(Connection)}.
+   */
+  @Deprecated
+  protected Integer getLastInsertId(Connection conn, String table) throws SQLException {
+    return getLastInsertId(conn);
+  }
+
   /**
    * This extracts an object of the given type from a result set. The object must have a
    * zero-argument constructor. It builds an object from a result set using reflection as follows:
@@ -205,6 +289,11 @@ public abstract class DaoBase {
    * <li>The value is assigned to the field in the object.</li>
    * </ol>
    * 
+   * The first three steps only happen the first time a class is extracted. The resulting plan is
+   * cached by {@link EntityMapper} and reused for every following row. The column for each field is
+   * found through the result set metadata on every call, so to read many rows from one result set
+   * use {@link #rowMapper(ResultSet, Class)} instead.
+   * 
    * Example: if a query returns values for a recipe, a Recipe object is returned. So:
    * 
    * <pre>
@@ -231,80 +320,29 @@ public abstract class DaoBase {
    * @return A populated class.
    */
   protected <T> T extract(ResultSet rs, Class<T> classType) {
-    try {
-      /* Obtain the constructor and create an object of the correct type. */
-      Constructor<T> con = classType.getConstructor();
-      T obj = con.newInstance();
-
-      /* Get the list of fields and loop through them. */
-      for(Field field : classType.getDeclaredFields()) {
-        String colName = camelCaseToSnakeCase(field.getName());
-        Class<?> fieldType = field.getType();
-
-        /*
-         * Set the field accessible flag which means that we can populate even private fields
-         * without using the setter.
-         */
-        field.setAccessible(true);
-        Object fieldValue = null;
-
-        try {
-          fieldValue = rs.getObject(colName);
-        }
-        catch(SQLException e) {
-          /*
-           * An exception caught here means that the field name isn't in the result set. Don't take
-           * any action.
-           */
-        }
-
-        /*
-         * Only set the value in the object if there is a value with the same name in the result
-         * set. This will preserve instance variables (like lists) that are assigned values when the
-         * object is created.
-         */
-        if(Objects.nonNull(fieldValue)) {
-          /*
-           * Convert the following types: Time -> LocalTime, and Timestamp -> LocalDateTime.
-           */
-          if(fieldValue instanceof Time && fieldType.equals(LocalTime.class)) {
-            fieldValue = ((Time)fieldValue).toLocalTime();
-          }
-          else if(fieldValue instanceof Timestamp && fieldType.equals(LocalDateTime.class)) {
-            fieldValue = ((Timestamp)fieldValue).toLocalDateTime();
-          }
-
-          field.set(obj, fieldValue);
-        }
-      }
-
-      return obj;
-
-    }
-    catch(Exception e) {
-      throw new DaoException("Unable to create object of type " + classType.getName(), e);
-    }
+    return EntityMapper.forClass(classType).map(rs);
   }
 
   /**
-   * This converts a camel case value (rowInsertTime) to snake case (row_insert_time).
+   * This returns a {@link RowMapper} that extracts objects of the given type from the rows of the
+   * result set, as {@link #extract(ResultSet, Class)} does. The columns are matched to the fields
+   * once, here, and every row is then read by column index. Obtain it before iterating:
+   * 
+   * <pre>
+   * RowMapper<Recipe> mapper = rowMapper(rs, Recipe.class);
    * 
-   * @param identifier The name in camel case to convert.
-   * @return The name converted to snake case.
+   * while(rs.next()) {
+   *   recipes.add(mapper.map());
+   * }
+   * </pre>
+   * 
+   * @param <T> The Generic for the type of object to create and return.
+   * @param rs The result set in which to extract values.
+   * @param classType The actual class type of the objects to create.
+   * @return A row mapper bound to the result set.
    */
-  private String camelCaseToSnakeCase(String identifier) {
-    StringBuilder nameBuilder = new StringBuilder();
-
-    for(char ch : identifier.toCharArray()) {
-      if(Character.isUpperCase(ch)) {
-        nameBuilder.append('_').append(Character.toLowerCase(ch));
-      }
-      else {
-        nameBuilder.append(ch);
-      }
-    }
-
-    return nameBuilder.toString();
+  protected <T> RowMapper<T> rowMapper(ResultSet rs, Class<T> classType) {
+    return EntityMapper.forClass(classType).bind(rs);
   }
 
   /**
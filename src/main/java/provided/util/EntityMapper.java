@@ -0,0 +1,232 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import provided.util.DaoBase.DaoException;
+
+/**
+ * This class holds the reflection plan used by {@link DaoBase#extract(ResultSet, Class)} to build
+ * an entity from a result set row. The zero-argument constructor, the list of fields and the
+ * snake case column name of each field are looked up once per entity class and reused for every
+ * row, instead of being looked up again for every row.
+ *
+ * Mappers are cached per class in a {@link ClassValue}, so obtaining one is a single lookup. Fields
+ * are bound to result set columns by index using {@link ResultSetMetaData}, once per result set, by
+ * the {@link RowMapper} returned from {@link #bind(ResultSet)}.
+ *
+ * @author Promineo
+ *
+ * @param <T> The entity type that this mapper creates.
+ */
+class EntityMapper<T> {
+  private static final ClassValue<EntityMapper<?>> MAPPERS = new ClassValue<>() {
+    @Override
+    protected EntityMapper<?> computeValue(Class<?> classType) {
+      return new EntityMapper<>(classType);
+    }
+  };
+
+  private final Class<T> classType;
+  private final Constructor<T> constructor;
+  private final FieldMapping[] fields;
+
+  /**
+   * Returns the cached mapper for the given class, building it on first use.
+   *
+   * @param <T> The entity type.
+   * @param classType The entity class.
+   * @return The mapper for the class.
+   */
+  @SuppressWarnings("unchecked")
+  static <T> EntityMapper<T> forClass(Class<T> classType) {
+    return (EntityMapper<T>)MAPPERS.get(classType);
+  }
+
+  /**
+   * Builds the plan: obtains the zero-argument constructor, makes the instance fields accessible
+   * and converts each field name to its column name.
+   *
+   * @param classType The entity class.
+   */
+  private EntityMapper(Class<T> classType) {
+    this.classType = classType;
+
+    try {
+      constructor = classType.getConstructor();
+    }
+    catch(NoSuchMethodException e) {
+      throw new DaoException(
+          "Class " + classType.getName() + " must have a public zero-argument constructor", e);
+    }
+
+    List<FieldMapping> mappings = new ArrayList<>();
+
+    for(Field field : classType.getDeclaredFields()) {
+      int modifiers = field.getModifiers();
+
+      /* Static and transient fields are never read from the result set. */
+      if(Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+        continue;
+      }
+
+      /*
+       * Set the field accessible flag which means that we can populate even private fields
+       * without using the setter.
+       */
+      field.setAccessible(true);
+      mappings.add(new FieldMapping(field, camelCaseToSnakeCase(field.getName())));
+    }
+
+    fields = mappings.toArray(new FieldMapping[0]);
+  }
+
+  /**
+   * Creates an object from the current row of the result set. The columns are matched to the
+   * fields for this row only; use {@link #bind(ResultSet)} to map every row of a result set.
+   *
+   * @param rs The result set, positioned on the row to extract.
+   * @return The populated object.
+   */
+  T map(ResultSet rs) {
+    return bind(rs).map();
+  }
+
+  /**
+   * Returns a row mapper for the given result set. The column index of each field is resolved
+   * from {@link ResultSetMetaData} here, once, and reused for every row the row mapper maps.
+   *
+   * @param rs The result set.
+   * @return The row mapper bound to the result set.
+   */
+  RowMapper<T> bind(ResultSet rs) {
+    try {
+      ResultSetMetaData metaData = rs.getMetaData();
+      Map<String, Integer> indexByLabel = new HashMap<>();
+
+      for(int col = metaData.getColumnCount(); col > 0; col--) {
+        /* Iterate backwards so that the first column with a given label wins. */
+        indexByLabel.put(metaData.getColumnLabel(col).toLowerCase(Locale.ROOT), col);
+      }
+
+      int[] columnIndexes = new int[fields.length];
+
+      for(int i = 0; i < fields.length; i++) {
+        columnIndexes[i] = indexByLabel.getOrDefault(fields[i].columnName, 0);
+      }
+
+      return new RowMapper<>(this, rs, columnIndexes);
+    }
+    catch(SQLException e) {
+      throw new DaoException("Unable to read the columns for type " + classType.getName(), e);
+    }
+  }
+
+  /**
+   * Creates an object from the current row of the result set, reading each field from the column
+   * index resolved by {@link #bind(ResultSet)} (zero if the column is not present).
+   *
+   * @param rs The result set, positioned on the row to extract.
+   * @param columnIndexes The column index for each field, in field order.
+   * @return The populated object.
+   */
+  T map(ResultSet rs, int[] columnIndexes) {
+    try {
+      T obj = constructor.newInstance();
+
+      for(int i = 0; i < fields.length; i++) {
+        int columnIndex = columnIndexes[i];
+
+        /*
+         * Only set the value in the object if there is a value with the same name in the result
+         * set. This will preserve instance variables (like lists) that are assigned values when
+         * the object is created.
+         */
+        if(columnIndex > 0) {
+          Object fieldValue = rs.getObject(columnIndex);
+
+          if(Objects.nonNull(fieldValue)) {
+            FieldMapping mapping = fields[i];
+            mapping.field.set(obj, mapping.convert(fieldValue));
+          }
+        }
+      }
+
+      return obj;
+    }
+    catch(Exception e) {
+      throw new DaoException("Unable to create object of type " + classType.getName(), e);
+    }
+  }
+
+  /**
+   * This converts a camel case value (rowInsertTime) to snake case (row_insert_time).
+   *
+   * @param identifier The name in camel case to convert.
+   * @return The name converted to snake case.
+   */
+  static String camelCaseToSnakeCase(String identifier) {
+    StringBuilder nameBuilder = new StringBuilder();
+
+    for(char ch : identifier.toCharArray()) {
+      if(Character.isUpperCase(ch)) {
+        nameBuilder.append('_').append(Character.toLowerCase(ch));
+      }
+      else {
+        nameBuilder.append(ch);
+      }
+    }
+
+    return nameBuilder.toString();
+  }
+
+  /**
+   * A field of the entity paired with the name of the column it is read from.
+   */
+  private static class FieldMapping {
+    private final Field field;
+    private final String columnName;
+    private final Class<?> fieldType;
+
+    FieldMapping(Field field, String columnName) {
+      this.field = field;
+      this.columnName = columnName;
+      this.fieldType = field.getType();
+    }
+
+    /**
+     * Convert the following types: Time -> LocalTime, and Timestamp -> LocalDateTime.
+     *
+     * @param value The non-null value read from the result set.
+     * @return The value to assign to the field.
+     */
+    Object convert(Object value) {
+      if(value instanceof Time && fieldType.equals(LocalTime.class)) {
+        return ((Time)value).toLocalTime();
+      }
+
+      if(value instanceof Timestamp && fieldType.equals(LocalDateTime.class)) {
+        return ((Timestamp)value).toLocalDateTime();
+      }
+
+      return value;
+    }
+  }
+}
@@ -0,0 +1,41 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.sql.ResultSet;
+
+/**
+ * This class maps the rows of one result set to objects of one entity type. The result set columns
+ * are matched to the entity fields when the row mapper is created, so each row is read by column
+ * index with no lookup by name. Obtain one with {@link DaoBase#rowMapper(ResultSet, Class)} before
+ * iterating the result set, and use it only for that result set.
+ *
+ * A row mapper is not shared between threads or result sets, so concurrent queries for the same
+ * entity class do not disturb each other's column bindings.
+ *
+ * @author Promineo
+ *
+ * @param <T> The entity type that this row mapper creates.
+ */
+public class RowMapper<T> {
+  private final EntityMapper<T> mapper;
+  private final ResultSet rs;
+  private final int[] columnIndexes;
+
+  RowMapper(EntityMapper<T> mapper, ResultSet rs, int[] columnIndexes) {
+    this.mapper = mapper;
+    this.rs = rs;
+    this.columnIndexes = columnIndexes;
+  }
+
+  /**
+   * Creates an object from the current row of the result set. If a field's column does not exist
+   * in the result set, or the column value is null, the field is left unchanged.
+   *
+   * @return The populated object.
+   */
+  public T map() {
+    return mapper.map(rs, columnIndexes);
+  }
+}
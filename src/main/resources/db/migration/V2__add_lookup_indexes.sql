@@ -0,0 +1,18 @@
+-- Indexes for the name ordering, step ordering and category lookups. Each is built online,
+-- so reads and writes carry on while it runs.
+
+ALTER TABLE project ADD INDEX idx_project_name (project_name),
+	ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE step ADD INDEX idx_step_project_order (project_id, step_order),
+	ALGORITHM=INPLACE, LOCK=NONE;
+
+-- The unique key becomes the primary key, then the old key is dropped.
+ALTER TABLE project_category ADD PRIMARY KEY (project_id, category_id),
+	ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE project_category ADD INDEX idx_project_category_category (category_id, project_id),
+	ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE project_category DROP INDEX project_id,
+	ALGORITHM=INPLACE, LOCK=NONE;
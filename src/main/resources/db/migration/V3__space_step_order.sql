@@ -0,0 +1,9 @@
+-- Renumbers every project's steps 1024 apart (StepDao.STEP_ORDER_GAP), keeping their order,
+-- so steps can be inserted and moved between existing ones without renumbering.
+
+UPDATE step s JOIN (
+	SELECT step_id,
+		ROW_NUMBER() OVER (PARTITION BY project_id ORDER BY step_order, step_id) AS position
+	FROM step
+) r ON r.step_id = s.step_id
+SET s.step_order = r.position * 1024;
@@ -0,0 +1,26 @@
+-- Makes category names unique, so two projects created at the same time with the same new
+-- category can't both insert it. Duplicates already in the table are merged into the
+-- category with the lowest ID first.
+
+-- A project linked to both a duplicate and the category being kept loses the duplicate link.
+DELETE pc FROM project_category pc
+JOIN category c ON c.category_id = pc.category_id
+JOIN (
+	SELECT category_name, MIN(category_id) AS keep_id FROM category GROUP BY category_name
+) k ON k.category_name = c.category_name AND k.keep_id <> c.category_id
+JOIN project_category kept ON kept.project_id = pc.project_id AND kept.category_id = k.keep_id;
+
+UPDATE project_category pc
+JOIN category c ON c.category_id = pc.category_id
+JOIN (
+	SELECT category_name, MIN(category_id) AS keep_id FROM category GROUP BY category_name
+) k ON k.category_name = c.category_name AND k.keep_id <> c.category_id
+SET pc.category_id = k.keep_id;
+
+DELETE c FROM category c
+JOIN (
+	SELECT category_name, MIN(category_id) AS keep_id FROM category GROUP BY category_name
+) k ON k.category_name = c.category_name AND k.keep_id <> c.category_id;
+
+ALTER TABLE category ADD UNIQUE KEY uk_category_name (category_name),
+	ALGORITHM=INPLACE, LOCK=NONE;
@@ -11,13 +11,15 @@ CREATE TABLE project (
 	actual_hours DECIMAL(7,2),
 	difficulty INT,
 	notes TEXT,
-	PRIMARY KEY (project_id)
+	PRIMARY KEY (project_id),
+	KEY idx_project_name (project_name)
 );
 
 CREATE TABLE category (
 	category_id INT AUTO_INCREMENT NOT NULL,
 	category_name VARCHAR(128) NOT NULL,
-	PRIMARY KEY (category_id)
+	PRIMARY KEY (category_id),
+	UNIQUE KEY uk_category_name (category_name)
 );
 
 CREATE TABLE material (
@@ -36,13 +38,15 @@ CREATE TABLE step (
 	step_text TEXT NOT NULL,
 	step_order INT NOT NULL,
 	PRIMARY KEY (step_id),
+	KEY idx_step_project_order (project_id, step_order),
 	FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE
 );
 
 CREATE TABLE project_category (
 	project_id INT NOT NULL,
 	category_id INT NOT NULL,
+	PRIMARY KEY (project_id, category_id),
+	KEY idx_project_category_category (category_id, project_id),
 	FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE,
-	FOREIGN KEY (category_id) REFERENCES category (category_id) ON DELETE CASCADE,
-	UNIQUE KEY (project_id,category_id)
+	FOREIGN KEY (category_id) REFERENCES category (category_id) ON DELETE CASCADE
 );
\ No newline at end of file
@@ -0,0 +1,88 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Covers the parts of MigrationRunner that decide which statements run and which errors a
+ * script may skip. Neither needs a database.
+ */
+class MigrationRunnerTest {
+	@Test
+	void splitsStatementsAtSemicolonsEndingALine() {
+		String sql = "CREATE TABLE a (id INT);\n"
+				+ "ALTER TABLE a ADD INDEX idx_id (id),\n"
+				+ "\tALGORITHM=INPLACE, LOCK=NONE;  \n";
+
+		assertEquals(List.of("CREATE TABLE a (id INT)",
+				"ALTER TABLE a ADD INDEX idx_id (id),\n\tALGORITHM=INPLACE, LOCK=NONE"),
+				MigrationRunner.splitStatements(sql));
+	}
+
+	@Test
+	void splitsTheLastStatementWithoutATrailingNewline() {
+		assertEquals(List.of("DROP TABLE a", "DROP TABLE b"),
+				MigrationRunner.splitStatements("DROP TABLE a;\nDROP TABLE b;"));
+	}
+
+	@Test
+	void keepsALastStatementWithoutASemicolon() {
+		assertEquals(List.of("DROP TABLE a", "DROP TABLE b"),
+				MigrationRunner.splitStatements("DROP TABLE a;\nDROP TABLE b"));
+	}
+
+	@Test
+	void skipsCommentedOutStatements() {
+		String sql = "-- Adds the index.\n"
+				+ "-- ALTER TABLE a DROP INDEX idx_id;\n"
+				+ "ALTER TABLE a ADD INDEX idx_id (id);\n"
+				+ "  -- DROP TABLE a;\n";
+
+		assertEquals(List.of("ALTER TABLE a ADD INDEX idx_id (id)"),
+				MigrationRunner.splitStatements(sql));
+	}
+
+	@Test
+	void keepsASemicolonInTheMiddleOfALine() {
+		String sql = "INSERT INTO a (name) VALUES ('x;y');\n"
+				+ "UPDATE a SET name = 'z'; UPDATE a SET id = 2;\n";
+
+		assertEquals(List.of("INSERT INTO a (name) VALUES ('x;y')",
+				"UPDATE a SET name = 'z'; UPDATE a SET id = 2"),
+				MigrationRunner.splitStatements(sql));
+	}
+
+	@Test
+	void splitsWindowsLineEndings() {
+		assertEquals(List.of("DROP TABLE a", "DROP TABLE b"),
+				MigrationRunner.splitStatements("DROP TABLE a;\r\nDROP TABLE b;\r\n"));
+	}
+
+	@Test
+	void returnsNothingForAScriptOfComments() {
+		assertEquals(List.of(), MigrationRunner.splitStatements("-- Nothing to do.\n\n"));
+	}
+
+	@Test
+	void skipsAlreadyAppliedErrorsOnlyForTheScriptsAllowedThem() {
+		assertTrue(MigrationRunner.isAlreadyApplied("V2__add_lookup_indexes.sql", 1061));
+		assertTrue(MigrationRunner.isAlreadyApplied("V2__add_lookup_indexes.sql", 1068));
+		assertTrue(MigrationRunner.isAlreadyApplied("V2__add_lookup_indexes.sql", 1091));
+		assertTrue(MigrationRunner.isAlreadyApplied("V4__unique_category_name.sql", 1061));
+
+		assertFalse(MigrationRunner.isAlreadyApplied("V4__unique_category_name.sql", 1091));
+		assertFalse(MigrationRunner.isAlreadyApplied("V3__space_step_order.sql", 1061));
+		assertFalse(MigrationRunner.isAlreadyApplied("V5__future.sql", 1091));
+	}
+
+	@Test
+	void neverSkipsOtherErrors() {
+		// ER_NO_SUCH_TABLE
+		assertFalse(MigrationRunner.isAlreadyApplied("V2__add_lookup_indexes.sql", 1146));
+	}
+}